@@ -11,7 +11,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -41,10 +40,7 @@ public class DataLoader implements CommandLineRunner {
             admin.setName("Administrador");
             admin.setEmail("admin@capibara.cl");
             admin.setPassword(passwordEncoder.encode("admin123"));
-            Set<Role> adminRoles = new HashSet<>();
-            adminRoles.add(Role.ROLE_ADMIN);
-            adminRoles.add(Role.ROLE_USER);
-            admin.setRoles(adminRoles);
+            admin.setRoles(Set.of(Role.ROLE_ADMIN, Role.ROLE_USER));
             admin.setActive(true);
             userRepository.save(admin);
 
@@ -53,9 +49,7 @@ public class DataLoader implements CommandLineRunner {
             user.setName("Usuario Demo");
             user.setEmail("usuario@capibara.cl");
             user.setPassword(passwordEncoder.encode("usuario123"));
-            Set<Role> userRoles = new HashSet<>();
-            userRoles.add(Role.ROLE_USER);
-            user.setRoles(userRoles);
+            user.addRole(Role.ROLE_USER);
             user.setActive(true);
             userRepository.save(user);
 
@@ -0,0 +1,52 @@
+package com.capibara.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del rate limiting por ruta (prefijo rate-limit.*)
+ * Cada regla define un token bucket: "capacity" peticiones en ráfaga y
+ * "refill-per-second" peticiones sostenidas, por IP o por usuario autenticado
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Máximo de buckets en memoria (los menos usados se descartan) */
+    private long maxBuckets = 100_000;
+
+    /** Segundos sin uso tras los cuales se descarta un bucket */
+    private long idleSeconds = 600;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        private String name;
+
+        /** Método HTTP (vacío = cualquiera) */
+        private String method;
+
+        /** Patrón de ruta, p. ej. /api/auth/login o /api/orders/** */
+        private String path;
+
+        private KeyType key = KeyType.IP;
+
+        private long capacity = 10;
+
+        private double refillPerSecond = 1.0;
+    }
+
+    public enum KeyType {
+        IP,         // Dirección IP del cliente
+        PRINCIPAL   // Usuario autenticado (IP si es anónimo)
+    }
+}
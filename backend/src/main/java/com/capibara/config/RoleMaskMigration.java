@@ -0,0 +1,81 @@
+package com.capibara.config;
+
+import com.capibara.models.Role;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migración de roles: tabla user_roles (un rol por fila) -> users.roles_mask
+ * Se ejecuta antes de DataLoader; si la tabla antigua ya no existe no hace nada.
+ * Solo completa usuarios con máscara 0, así que es seguro re-ejecutarla.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RoleMaskMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleMaskMigration.class);
+
+    private static final String LEGACY_TABLE = "user_roles";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!legacyTableExists()) {
+            return;
+        }
+
+        Map<Long, Integer> masks = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, role FROM " + LEGACY_TABLE, rs -> {
+            try {
+                Role role = Role.valueOf(rs.getString("role"));
+                masks.merge(rs.getLong("user_id"), role.getBit(), (a, b) -> a | b);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rol desconocido ignorado en {}: {}", LEGACY_TABLE, rs.getString("role"));
+            }
+        });
+
+        List<Object[]> updates = masks.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "UPDATE users SET roles_mask = ? WHERE id = ? AND roles_mask = 0", updates));
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+        logger.info("✓ Roles migrados a users.roles_mask: {} usuarios", updates.size());
+    }
+
+    private boolean legacyTableExists() {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // El nombre puede estar guardado en mayúsculas (H2) o minúsculas (PostgreSQL)
+            for (String name : List.of(LEGACY_TABLE.toUpperCase(), LEGACY_TABLE)) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
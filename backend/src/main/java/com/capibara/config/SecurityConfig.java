@@ -1,7 +1,13 @@
 package com.capibara.config;
 
+import com.capibara.security.AdaptiveBCryptPasswordEncoder;
+import com.capibara.security.BoundedPasswordEncoder;
 import com.capibara.security.JwtAuthenticationFilter;
+import com.capibara.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,7 +20,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -35,8 +40,32 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
 
+    // 0 = un hilo por núcleo disponible
+    @Value("${auth.hashing.pool-size:0}")
+    private int hashingPoolSize;
+
+    @Value("${auth.hashing.queue-capacity:32}")
+    private int hashingQueueCapacity;
+
+    @Value("${auth.hashing.retry-after-seconds:2}")
+    private long hashingRetryAfterSeconds;
+
+    // 0 = calibrar al iniciar según auth.hashing.target-millis
+    @Value("${auth.hashing.strength:0}")
+    private int hashingStrength;
+
+    @Value("${auth.hashing.target-millis:250}")
+    private long hashingTargetMillis;
+
+    @Value("${auth.hashing.min-strength:10}")
+    private int hashingMinStrength;
+
+    @Value("${auth.hashing.max-strength:14}")
+    private int hashingMaxStrength;
+
     /**
      * Configuración CORS
      */
@@ -76,7 +105,10 @@ public class SecurityConfig {
      * Cadena de filtros de seguridad
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            AuthenticationProvider authenticationProvider
+    ) throws Exception {
         http
                 // CORS
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -86,6 +118,10 @@ public class SecurityConfig {
                 
                 // Configuración de autorización
                 .authorizeHttpRequests(auth -> auth
+                        // Despacho ASYNC al terminar una respuesta en streaming (p. ej. /export):
+                        // la petición original ya fue autorizada y el JWT no se vuelve a procesar
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // ═══════════════════════════════════════════════════
                         // RUTAS PÚBLICAS (sin autenticación)
                         // ═══════════════════════════════════════════════════
@@ -99,9 +135,14 @@ public class SecurityConfig {
                                 "/error"
                         ).permitAll()
                         
+                        // Exportación masiva: solo ADMIN (antes de la regla pública de GET)
+                        .requestMatchers(HttpMethod.GET, "/api/products/export").hasRole("ADMIN")
+
                         // GET /api/products es público (ver productos sin login)
                         .requestMatchers(HttpMethod.GET, "/api/products").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
+                        // Multi-get por POST (lista de ids en el cuerpo): solo lectura, también público
+                        .requestMatchers(HttpMethod.POST, "/api/products/batch").permitAll()
                         
                         // ═══════════════════════════════════════════════════
                         // RUTAS DE ADMINISTRADOR (requiere ROLE_ADMIN)
@@ -147,10 +188,13 @@ public class SecurityConfig {
                 )
                 
                 // Authentication provider
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 
                 // Agregar filtro JWT
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Rate limiting (después del JWT para poder limitar por usuario)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
                 
                 // Permitir frames de mismo origen (H2 Console)
                 .headers(headers -> headers
@@ -161,10 +205,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -173,8 +217,22 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt con costo calibrado, ejecutado en un pool dedicado con cola acotada
+     * (los hilos de Tomcat no quedan bloqueados por ráfagas de login)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        AdaptiveBCryptPasswordEncoder bcrypt = hashingStrength > 0
+                ? new AdaptiveBCryptPasswordEncoder(hashingStrength)
+                : AdaptiveBCryptPasswordEncoder.calibrated(hashingTargetMillis, hashingMinStrength, hashingMaxStrength);
+
+        return new BoundedPasswordEncoder(
+                bcrypt,
+                hashingPoolSize > 0 ? hashingPoolSize : Runtime.getRuntime().availableProcessors(),
+                hashingQueueCapacity,
+                hashingRetryAfterSeconds,
+                meterRegistry
+        );
     }
 }
\ No newline at end of file
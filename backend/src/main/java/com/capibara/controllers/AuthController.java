@@ -4,11 +4,13 @@ import com.capibara.dto.ApiResponse;
 import com.capibara.dto.AuthResponse;
 import com.capibara.dto.LoginRequest;
 import com.capibara.dto.RegisterRequest;
+import com.capibara.security.PasswordHashingBusyException;
 import com.capibara.services.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +36,8 @@ public class AuthController {
             AuthResponse response = authService.register(request);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Usuario registrado exitosamente", response));
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error(e.getMessage()));
@@ -46,9 +50,38 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(ApiResponse.success("Login exitoso", response));
+        } catch (PasswordHashingBusyException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Credenciales inválidas"));
         }
     }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Cerrar sesión", description = "Revoca el token JWT presentado")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Token JWT requerido"));
+        }
+        try {
+            authService.logout(authorization.substring(7));
+            return ResponseEntity.ok(ApiResponse.success("Sesión cerrada exitosamente", null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Token JWT inválido"));
+        }
+    }
+
+    /**
+     * Pool de hashing saturado: rechazo inmediato con sugerencia de reintento
+     */
+    private <T> ResponseEntity<ApiResponse<T>> busy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
+    }
 }
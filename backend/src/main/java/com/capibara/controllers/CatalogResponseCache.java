@@ -0,0 +1,139 @@
+package com.capibara.controllers;
+
+import com.capibara.dto.ApiResponse;
+import com.capibara.services.CatalogListener;
+import com.capibara.services.CatalogSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas JSON ya serializadas (y comprimidas con gzip) de los
+ * endpoints de catálogo más usados
+ * La clave es versión del catálogo + variante del endpoint: una respuesta se
+ * serializa y comprime una sola vez por versión; las siguientes solo copian bytes.
+ * Se vacía con cada cambio del catálogo y está acotada por tamaño total en bytes.
+ * Métricas expuestas en /actuator/metrics/cache.* con cache=catalog.responses
+ */
+@Component
+public class CatalogResponseCache implements CatalogListener {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Body> cache;
+
+    public CatalogResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.response-cache.max-bytes:67108864}") long maxBytes
+    ) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Body body) -> body.raw().length + body.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalog.responses");
+    }
+
+    /**
+     * Respuesta con el cuerpo de la variante para esta versión del catálogo,
+     * o null (304) si el cliente ya la tiene
+     * El ETag distingue la codificación: los bytes gzip y sin comprimir difieren
+     * @param data se invoca solo si la respuesta no está en caché
+     */
+    public ResponseEntity<byte[]> respond(CatalogSnapshot catalog, String variant, WebRequest request,
+                                          Supplier<?> data) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // También en el 304: el ETag depende de la codificación pedida
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String etag = ConditionalGet.etag("c" + catalog.getVersion() + (gzip ? "-gzip" : ""));
+        if (ConditionalGet.notModified(request, etag, catalog.getVersion(), false)) {
+            return null;
+        }
+
+        Body body = cache.get(catalog.getVersion() + "|" + variant, key -> serialize(data.get()));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? body.gzip() : body.raw());
+    }
+
+    @Override
+    public void onCatalogChanged(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        // Las claves llevan la versión: esto solo libera memoria antes
+        cache.invalidateAll();
+    }
+
+    private Body serialize(Object data) {
+        try {
+            byte[] raw = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+            return new Body(raw, gzip(raw));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        // Nivel por defecto: cada commit de una orden vacía la caché y el primer
+        // lector de cada variante comprime en el hilo de la petición
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * ¿El cliente acepta gzip? (token "gzip" o "*" sin q=0)
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0{0,3})?")) {
+                    rejected = true;
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Body(byte[] raw, byte[] gzip) {
+    }
+}
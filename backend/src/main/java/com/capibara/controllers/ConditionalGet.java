@@ -0,0 +1,75 @@
+package com.capibara.controllers;
+
+import com.capibara.services.CatalogSnapshot;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * GET condicional (ETag / Last-Modified) para los controladores
+ * Se verifica antes de leer o serializar el recurso: si el cliente ya tiene
+ * la versión actual, el controlador devuelve null y Spring responde 304.
+ * Las respuestas llevan "no-cache": el navegador las guarda pero revalida siempre.
+ */
+final class ConditionalGet {
+
+    private static final String PUBLIC = CacheControl.noCache().getHeaderValue();
+    private static final String PRIVATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Recursos derivados del catálogo: la versión de la foto identifica el contenido
+     */
+    static boolean catalogNotModified(WebRequest request, CatalogSnapshot catalog) {
+        return notModified(request, etag("c" + catalog.getVersion()), catalog.getVersion(), false);
+    }
+
+    /**
+     * @param privateData true para datos de un usuario (no deben guardarlo caches compartidos)
+     */
+    static boolean notModified(WebRequest request, String etag, long lastModifiedMillis, boolean privateData) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            HttpServletResponse response = servletRequest.getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, privateData ? PRIVATE : PUBLIC);
+            }
+        }
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+
+    /**
+     * ETag fuerte a partir de sus partes
+     */
+    static String etag(Object... parts) {
+        StringBuilder value = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                value.append('-');
+            }
+            value.append(parts[i]);
+        }
+        return value.append('"').toString();
+    }
+
+    /**
+     * Marca de tiempo compacta con precisión de microsegundos (para ETag)
+     */
+    static String stamp(LocalDateTime time) {
+        if (time == null) {
+            return "0";
+        }
+        long micros = time.atZone(ZoneId.systemDefault()).toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
+        return Long.toString(micros, 36);
+    }
+
+    static long millis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
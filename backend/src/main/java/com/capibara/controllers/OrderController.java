@@ -2,10 +2,13 @@ package com.capibara.controllers;
 
 import com.capibara.dto.ApiResponse;
 import com.capibara.dto.CreateOrderRequest;
+import com.capibara.dto.FieldSet;
+import com.capibara.dto.FieldSets;
+import com.capibara.dto.OrderListVersion;
+import com.capibara.dto.OrderVersion;
 import com.capibara.models.Order;
 import com.capibara.models.OrderStatus;
-import com.capibara.models.User;
-import com.capibara.repositories.UserRepository;
+import com.capibara.security.AuthenticatedUser;
 import com.capibara.services.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -14,9 +17,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,7 +29,9 @@ import java.util.List;
  * Controlador REST para órdenes
  * IE3.2.1 - API REST CRUD completo con Swagger
  * IE3.3.3 - Restricciones de acceso por roles
- * 
+ * Las lecturas soportan GET condicional: la versión se consulta con una
+ * proyección liviana antes de cargar las órdenes. Con ?fields= (ver
+ * FieldSets.ORDERS) solo se leen y serializan las columnas pedidas, sin items.
  */
 @RestController
 @RequestMapping("/api/orders")
@@ -35,25 +42,52 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository;
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN')")  //  Agregado ROLE_
     @Operation(summary = "Listar todas las órdenes", description = "Obtiene todas las órdenes (Solo ADMIN)")
-    public ResponseEntity<ApiResponse<List<Order>>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<ApiResponse<List<?>>> getAllOrders(
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        FieldSet.Selection<Order> selection;
+        try {
+            selection = FieldSets.ORDERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        if (listNotModified(webRequest, "all", orderService.getAllOrdersVersion())) {
+            return null;
+        }
+        List<?> orders = selection != null ? orderService.getAllOrders(selection) : orderService.getAllOrders();
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
     @GetMapping("/my-orders")
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")  //  Agregado ROLE_
     @Operation(summary = "Mis órdenes", description = "Obtiene las órdenes del usuario autenticado")
-    public ResponseEntity<ApiResponse<List<Order>>> getMyOrders(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<?>>> getMyOrders(
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        FieldSet.Selection<Order> selection;
         try {
-            User user = userRepository.findByEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+            selection = FieldSets.ORDERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
 
-            List<Order> orders = orderService.getOrdersByUserId(user.getId());
+        try {
+            if (listNotModified(webRequest, "u" + principal.getId(), orderService.getOrdersVersionByUserId(principal.getId()))) {
+                return null;
+            }
+            List<?> orders = selection != null
+                    ? orderService.getOrdersByUserId(principal.getId(), selection)
+                    : orderService.getOrdersByUserId(principal.getId());
             return ResponseEntity.ok(ApiResponse.success(orders));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -64,23 +98,43 @@ public class OrderController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")  //  Agregado ROLE_
     @Operation(summary = "Obtener orden por ID", description = "Obtiene una orden específica")
-    public ResponseEntity<ApiResponse<Order>> getOrderById(
+    public ResponseEntity<ApiResponse<?>> getOrderById(
             @PathVariable Long id,
-            Authentication authentication
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
     ) {
+        FieldSet.Selection<Order> selection;
         try {
-            Order order = orderService.getOrderById(id);
+            selection = FieldSets.ORDERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
 
-            // Verificar permisos: solo el dueño o admin puede ver la orden
-            User user = userRepository.findByEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        try {
+            // Verificar permisos y versión antes de cargar la orden con sus items
+            OrderVersion version = orderService.getOrderVersionForUser(id, principal);
+            // Los items incluyen sus productos: solo cuentan los productos de esta orden
+            String etag = ConditionalGet.etag("o" + id, ConditionalGet.stamp(version.updatedAt()),
+                    ConditionalGet.stamp(version.ownerUpdatedAt()), ConditionalGet.stamp(version.productsUpdatedAt()));
+            long lastModified = Math.max(ConditionalGet.millis(version.productsUpdatedAt()), Math.max(
+                    ConditionalGet.millis(version.updatedAt()), ConditionalGet.millis(version.ownerUpdatedAt())));
+            if (ConditionalGet.notModified(webRequest, etag, lastModified, true)) {
+                return null;
+            }
 
-            if (!order.getUser().getId().equals(user.getId()) && !user.isAdmin()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(ApiResponse.error("No tienes permiso para ver esta orden"));
+            if (selection != null) {
+                // Permisos ya verificados junto con la versión
+                return ResponseEntity.ok(ApiResponse.success(orderService.getOrderFields(id, selection)));
             }
 
+            // Verificar permisos: solo el dueño o admin puede ver la orden
+            Order order = orderService.getOrderForUser(id, principal);
             return ResponseEntity.ok(ApiResponse.success(order));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
@@ -90,8 +144,25 @@ public class OrderController {
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")  //  Agregado ROLE_
     @Operation(summary = "Buscar por estado", description = "Obtiene órdenes por estado (Solo ADMIN)")
-    public ResponseEntity<ApiResponse<List<Order>>> getOrdersByStatus(@PathVariable OrderStatus status) {
-        List<Order> orders = orderService.getOrdersByStatus(status);
+    public ResponseEntity<ApiResponse<List<?>>> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        FieldSet.Selection<Order> selection;
+        try {
+            selection = FieldSets.ORDERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        if (listNotModified(webRequest, "s" + status, orderService.getOrdersVersionByStatus(status))) {
+            return null;
+        }
+        List<?> orders = selection != null
+                ? orderService.getOrdersByStatus(status, selection)
+                : orderService.getOrdersByStatus(status);
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
@@ -100,13 +171,10 @@ public class OrderController {
     @Operation(summary = "Crear orden", description = "Crea una nueva orden de compra")
     public ResponseEntity<ApiResponse<Order>> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
-            Authentication authentication
+            @AuthenticationPrincipal AuthenticatedUser principal
     ) {
         try {
-            User user = userRepository.findByEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            Order order = orderService.createOrder(user.getId(), request);
+            Order order = orderService.createOrder(principal.getId(), request);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Orden creada exitosamente", order));
         } catch (Exception e) {
@@ -136,22 +204,15 @@ public class OrderController {
     @Operation(summary = "Cancelar orden", description = "Cancela una orden")
     public ResponseEntity<ApiResponse<Void>> cancelOrder(
             @PathVariable Long id,
-            Authentication authentication
+            @AuthenticationPrincipal AuthenticatedUser principal
     ) {
         try {
-            Order order = orderService.getOrderById(id);
-
-            // Verificar permisos
-            User user = userRepository.findByEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            if (!order.getUser().getId().equals(user.getId()) && !user.isAdmin()) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(ApiResponse.error("No tienes permiso para cancelar esta orden"));
-            }
-
-            orderService.cancelOrder(id);
+            // Verificar permisos: solo el dueño o admin puede cancelar
+            orderService.cancelOrder(id, principal);
             return ResponseEntity.ok(ApiResponse.success("Orden cancelada exitosamente", null));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
@@ -170,4 +231,16 @@ public class OrderController {
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * GET condicional de un listado de órdenes
+     * Las órdenes incluyen sus productos, así que el ETag también depende de los
+     * productos de esas órdenes (no de todo el catálogo).
+     * Sin Last-Modified: eliminar la orden más reciente haría retroceder la fecha máxima.
+     */
+    private boolean listNotModified(WebRequest webRequest, String scope, OrderListVersion version) {
+        String etag = ConditionalGet.etag("o" + scope, version.count(), ConditionalGet.stamp(version.updatedAt()),
+                ConditionalGet.stamp(version.ownersUpdatedAt()), ConditionalGet.stamp(version.productsUpdatedAt()));
+        return ConditionalGet.notModified(webRequest, etag, -1, true);
+    }
+}
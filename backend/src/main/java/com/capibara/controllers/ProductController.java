@@ -1,24 +1,62 @@
 package com.capibara.controllers;
 
 import com.capibara.dto.ApiResponse;
+import com.capibara.dto.FieldSet;
+import com.capibara.dto.FieldSets;
+import com.capibara.dto.ImportResult;
+import com.capibara.dto.PageResponse;
+import com.capibara.dto.ProductBatchRequest;
+import com.capibara.dto.ProductBatchResponse;
+import com.capibara.dto.ProductChangesResponse;
+import com.capibara.dto.ProductQuery;
+import com.capibara.dto.ProductSummary;
+import com.capibara.dto.StockAdjustmentRequest;
+import com.capibara.dto.StockAdjustmentResult;
+import com.capibara.dto.Suggestion;
 import com.capibara.models.Product;
+import com.capibara.services.CatalogPageRequest;
+import com.capibara.services.CatalogService;
+import com.capibara.services.ProductBulkService;
+import com.capibara.services.ProductChangeService;
+import com.capibara.services.CatalogSnapshot;
+import com.capibara.services.ProductFacetIndex;
+import com.capibara.services.ProductSearchIndex;
 import com.capibara.services.ProductService;
+import com.capibara.services.ProductSuggestionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Controlador REST para productos
  * IE3.2.1 - API REST CRUD completo con Swagger
  * IE3.3.3 - Restricciones de acceso por roles
+ * Las lecturas del catálogo se sirven desde CatalogService (memoria) y
+ * soportan GET condicional (ETag por versión del catálogo o por producto).
+ * Los listados completos y las facetas se responden con bytes JSON/gzip ya
+ * serializados por CatalogResponseCache. Los listados entregan ProductSummary;
+ * la entidad completa solo se entrega en /{id}. Con ?fields= (ver
+ * FieldSets.PRODUCTS) se entregan solo los campos pedidos.
  */
 @RestController
 @RequestMapping("/api/products")
@@ -28,52 +66,311 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogService catalogService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final CatalogResponseCache responseCache;
+    private final ProductBulkService productBulkService;
+    private final ProductChangeService productChangeService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Listar todos los productos", description = "Obtiene la lista completa de productos")
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        return listing(catalog, "all", fields, webRequest, catalog::getAllSummaries, catalog::getAll);
+    }
+
+    @GetMapping(params = "size")
+    @Operation(summary = "Listar todos los productos (paginado)", description = "Obtiene una página de productos. Paginación por page/size o por cursor (sort: id | createdAt)")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getAllProductsPage(
+            @RequestParam int size,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        try {
+            CatalogPageRequest request = CatalogPageRequest.of(sort, page, size, cursor);
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+            return ResponseEntity.ok(ApiResponse.success(catalogService.page(catalog.getAll(request.sort()), request, view(catalog, selection))));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/active")
     @Operation(summary = "Listar productos activos", description = "Obtiene solo los productos activos")
-    public ResponseEntity<ApiResponse<List<Product>>> getActiveProducts() {
-        List<Product> products = productService.getActiveProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    public ResponseEntity<?> getActiveProducts(
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        return listing(catalog, "active", fields, webRequest, catalog::getActiveSummaries, catalog::getActive);
+    }
+
+    @GetMapping(value = "/active", params = "size")
+    @Operation(summary = "Listar productos activos (paginado)", description = "Obtiene una página de productos activos. Paginación por page/size o por cursor (sort: id | createdAt)")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getActiveProductsPage(
+            @RequestParam int size,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        try {
+            CatalogPageRequest request = CatalogPageRequest.of(sort, page, size, cursor);
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+            return ResponseEntity.ok(ApiResponse.success(catalogService.page(catalog.getActive(request.sort()), request, view(catalog, selection))));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/available")
     @Operation(summary = "Listar productos disponibles", description = "Obtiene productos activos con stock disponible")
-    public ResponseEntity<ApiResponse<List<Product>>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    public ResponseEntity<?> getAvailableProducts(
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        return listing(catalog, "available", fields, webRequest, catalog::getAvailableSummaries, catalog::getAvailable);
+    }
+
+    @GetMapping(value = "/available", params = "size")
+    @Operation(summary = "Listar productos disponibles (paginado)", description = "Obtiene una página de productos activos con stock. Paginación por page/size o por cursor (sort: id | createdAt)")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getAvailableProductsPage(
+            @RequestParam int size,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        try {
+            CatalogPageRequest request = CatalogPageRequest.of(sort, page, size, cursor);
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+            return ResponseEntity.ok(ApiResponse.success(catalogService.page(catalog.getAvailable(request.sort()), request, view(catalog, selection))));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener producto por ID", description = "Obtiene un producto específico por su ID")
-    public ResponseEntity<ApiResponse<Product>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<?>> getProductById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        FieldSet.Selection<Product> selection;
         try {
-            Product product = productService.getProductById(id);
-            return ResponseEntity.ok(ApiResponse.success(product));
+            selection = FieldSets.PRODUCTS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        try {
+            Product product = catalogService.getProductById(id);
+            // ETag del recurso individual: id + updatedAt (cambia con cada modificación)
+            String etag = ConditionalGet.etag("p" + id, ConditionalGet.stamp(product.getUpdatedAt()));
+            if (ConditionalGet.notModified(webRequest, etag, ConditionalGet.millis(product.getUpdatedAt()), false)) {
+                return null;
+            }
+            return ResponseEntity.ok(ApiResponse.success(selection != null ? selection.project(product) : product));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
 
+    @GetMapping("/batch")
+    @Operation(summary = "Obtener varios productos por ID", description = "Resuelve una lista de ids (ids=1,2,3) en una sola solicitud, en el orden pedido, e informa los ids inexistentes")
+    public ResponseEntity<ApiResponse<ProductBatchResponse<?>>> getProductsByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        if (ids.size() > ProductBatchRequest.MAX_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Máximo " + ProductBatchRequest.MAX_IDS + " ids por solicitud"));
+        }
+        return batch(ids, fields, webRequest);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Obtener varios productos por ID (POST)", description = "Igual que GET /batch, con los ids en el cuerpo para listas largas")
+    public ResponseEntity<ApiResponse<ProductBatchResponse<?>>> getProductsByIdsPost(
+            @Valid @RequestBody ProductBatchRequest request,
+            @RequestParam(required = false) String fields
+    ) {
+        return batch(request.getIds(), fields, null);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Cambios del catálogo", description = "Productos creados, modificados o desactivados y productos eliminados después del cursor since (sin since: desde el inicio). Enviar nextCursor como since en la siguiente consulta")
+    public ResponseEntity<ApiResponse<ProductChangesResponse>> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String fields
+    ) {
+        try {
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            return ResponseEntity.ok(ApiResponse.success(productChangeService.getChanges(since, limit, selection)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/category/{category}")
     @Operation(summary = "Buscar por categoría", description = "Obtiene productos de una categoría específica")
-    public ResponseEntity<ApiResponse<List<Product>>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(ApiResponse.success(products));
+    public ResponseEntity<?> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        return listing(catalog, "category:" + category, fields, webRequest,
+                () -> catalog.getActiveSummariesByCategory(category),
+                () -> catalog.getActiveByCategory(category));
+    }
+
+    @GetMapping(value = "/category/{category}", params = "size")
+    @Operation(summary = "Buscar por categoría (paginado)", description = "Obtiene una página de productos de una categoría. Paginación por page/size o por cursor (sort: id | createdAt)")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> getProductsByCategoryPage(
+            @PathVariable String category,
+            @RequestParam int size,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        try {
+            CatalogPageRequest request = CatalogPageRequest.of(sort, page, size, cursor);
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+            return ResponseEntity.ok(ApiResponse.success(catalogService.page(catalog.getActiveByCategory(category, request.sort()), request, view(catalog, selection))));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Buscar productos", description = "Busca productos por nombre")
-    public ResponseEntity<ApiResponse<List<Product>>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(ApiResponse.success(products));
+    @Operation(summary = "Buscar productos", description = "Busca productos activos por nombre, categoría y descripción (sin tildes, parcial y tolerante a errores), ordenados por relevancia")
+    public ResponseEntity<ApiResponse<List<?>>> searchProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        String query = q != null ? q : name;
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Debe indicar el texto a buscar (q o name)"));
+        }
+        FieldSet.Selection<Product> selection;
+        try {
+            selection = FieldSets.PRODUCTS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+        // Los índices derivados nunca están atrás de la foto: se lee la versión primero
+        CatalogSnapshot catalog = catalogService.snapshot();
+        if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+            return null;
+        }
+        List<Product> products = productSearchIndex.search(query, Math.max(1, Math.min(limit, 100)));
+        return ResponseEntity.ok(ApiResponse.success(view(catalog, selection).apply(products)));
+    }
+
+    @GetMapping("/query")
+    @Operation(summary = "Consultar productos", description = "Filtros combinables (category repetible, minPrice, maxPrice, inStock, active, q) y orden (sort: id | name | price | stock | createdAt, con - para descendente) resueltos en la base de datos")
+    public ResponseEntity<ApiResponse<PageResponse<?>>> queryProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        try {
+            ProductQuery query = new ProductQuery(category, minPrice, maxPrice, inStock, active, q, sort, page, size);
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+
+            Page<Product> result = productService.queryProducts(query);
+            PageResponse<?> response = new PageResponse<>(
+                    view(catalog, selection).apply(result.getContent()),
+                    result.getNumber(),
+                    result.getSize(),
+                    result.getTotalElements(),
+                    result.hasNext(),
+                    null
+            );
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Facetas del catálogo", description = "Conteos de productos activos por categoría, disponibilidad y rango de precio")
+    public ResponseEntity<byte[]> getFacets(WebRequest webRequest) {
+        CatalogSnapshot catalog = catalogService.snapshot();
+        return responseCache.respond(catalog, "facets", webRequest, productFacetIndex::getFacets);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocompletar", description = "Sugerencias de productos y categorías que comienzan con el prefijo (sin tildes), ordenadas por stock")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit,
+            WebRequest webRequest
+    ) {
+        if (ConditionalGet.catalogNotModified(webRequest, catalogService.snapshot())) {
+            return null;
+        }
+        List<Suggestion> suggestions = productSuggestionIndex.suggest(prefix, Math.max(1, limit));
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
     }
 
     @PostMapping
@@ -91,6 +388,52 @@ public class ProductController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Importar productos", description = "Carga masiva en CSV (con encabezado) o NDJSON: filas con id actualizan, sin id insertan. Informa los errores por fila (Solo ADMIN)")
+    public ResponseEntity<ApiResponse<ImportResult>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        try {
+            ImportResult result = productBulkService.importProducts(body, ProductBulkService.Format.fromMediaType(contentType));
+            String message = result.getFailed() == 0
+                    ? "Importación completada"
+                    : "Importación completada con " + result.getFailed() + " filas con error";
+            return ResponseEntity.ok(ApiResponse.success(message, result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Exportar productos", description = "Descarga todos los productos en CSV o NDJSON (format=csv | ndjson), sin cargarlos en memoria (Solo ADMIN)")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        ProductBulkService.Format exportFormat;
+        try {
+            exportFormat = ProductBulkService.Format.fromKey(format);
+        } catch (Exception e) {
+            // El tipo de retorno es un stream: el error se escribe igual como ApiResponse
+            ApiResponse<Void> error = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> objectMapper.writeValue(output, error));
+        }
+
+        StreamingResponseBody body = output -> productBulkService.exportProducts(output, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -136,6 +479,22 @@ public class ProductController {
         }
     }
 
+    @PatchMapping("/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Ajuste masivo de stock", description = "Aplica muchos ajustes de stock (SET = valor absoluto, DELTA = suma) en una sola transacción e informa los ids desconocidos (Solo ADMIN)")
+    public ResponseEntity<ApiResponse<StockAdjustmentResult>> adjustStock(
+            @Valid @RequestBody StockAdjustmentRequest request
+    ) {
+        try {
+            StockAdjustmentResult result = productBulkService.adjustStock(request.getItems());
+            return ResponseEntity.ok(ApiResponse.success("Stock actualizado: " + result.getUpdated() + " ajustes aplicados", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PatchMapping("/{id}/stock")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -152,4 +511,62 @@ public class ProductController {
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
+
+    /**
+     * Listado completo servido por CatalogResponseCache: ProductSummary ya
+     * calculados o, con ?fields=, solo los campos pedidos (una variante en caché por selección)
+     */
+    private ResponseEntity<?> listing(
+            CatalogSnapshot catalog,
+            String variant,
+            String fields,
+            WebRequest webRequest,
+            Supplier<List<ProductSummary>> summaries,
+            Supplier<List<Product>> products
+    ) {
+        FieldSet.Selection<Product> selection;
+        try {
+            selection = FieldSets.PRODUCTS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        if (selection == null) {
+            return responseCache.respond(catalog, variant, webRequest, summaries);
+        }
+        return responseCache.respond(catalog, variant + "|fields=" + selection.key(), webRequest,
+                () -> selection.project(products.get()));
+    }
+
+    /**
+     * Multi-get servido desde la foto del catálogo: sin consultas a la base de datos
+     */
+    private ResponseEntity<ApiResponse<ProductBatchResponse<?>>> batch(List<Long> ids, String fields, WebRequest webRequest) {
+        try {
+            FieldSet.Selection<Product> selection = FieldSets.PRODUCTS.select(fields);
+            CatalogSnapshot catalog = catalogService.snapshot();
+            if (webRequest != null && ConditionalGet.catalogNotModified(webRequest, catalog)) {
+                return null;
+            }
+
+            List<Long> missing = new ArrayList<>();
+            List<Product> products = catalog.findAllById(ids, missing);
+            return ResponseEntity.ok(ApiResponse.success(
+                    new ProductBatchResponse<>(view(catalog, selection).apply(products), missing)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Cómo se entregan los productos de una página o búsqueda
+     */
+    private static Function<List<Product>, List<?>> view(CatalogSnapshot catalog, FieldSet.Selection<Product> selection) {
+        if (selection == null) {
+            return catalog::summarize;
+        }
+        return selection::project;
+    }
 }
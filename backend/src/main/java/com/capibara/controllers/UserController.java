@@ -1,6 +1,8 @@
 package com.capibara.controllers;
 
 import com.capibara.dto.ApiResponse;
+import com.capibara.dto.FieldSet;
+import com.capibara.dto.FieldSets;
 import com.capibara.models.User;
 import com.capibara.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +21,7 @@ import java.util.List;
  * Controlador REST para usuarios
  * IE3.2.1 - API REST CRUD completo con Swagger
  * IE3.3.3 - Restricciones de acceso por roles
+ * Las lecturas aceptan ?fields= (ver FieldSets.USERS) para elegir las columnas
  */
 @RestController
 @RequestMapping("/api/users")
@@ -33,7 +36,18 @@ public class UserController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Listar usuarios", description = "Obtiene todos los usuarios (Solo ADMIN)")
-    public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
+    public ResponseEntity<ApiResponse<List<?>>> getAllUsers(@RequestParam(required = false) String fields) {
+        FieldSet.Selection<User> selection;
+        try {
+            selection = FieldSets.USERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        if (selection != null) {
+            return ResponseEntity.ok(ApiResponse.success(userService.getAllUsers(selection)));
+        }
         List<User> users = userService.getAllUsers();
         // Limpiar contraseñas antes de enviar
         users.forEach(user -> user.setPassword(null));
@@ -43,11 +57,22 @@ public class UserController {
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(summary = "Perfil actual", description = "Obtiene el perfil del usuario autenticado")
-    public ResponseEntity<ApiResponse<User>> getCurrentUser(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getCurrentUser(
+            Authentication authentication,
+            @RequestParam(required = false) String fields
+    ) {
+        FieldSet.Selection<User> selection;
         try {
-            User user = userService.getUserByEmail(authentication.getName());
-            user.setPassword(null);
-            return ResponseEntity.ok(ApiResponse.success(user));
+            selection = FieldSets.USERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        try {
+            // El perfil viene de la caché de cuentas: los campos se proyectan en memoria
+            User user = userService.getProfileByEmail(authentication.getName());
+            return ResponseEntity.ok(ApiResponse.success(selection != null ? selection.project(user) : user));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(e.getMessage()));
@@ -57,8 +82,22 @@ public class UserController {
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Obtener usuario por ID", description = "Obtiene un usuario específico (Solo ADMIN)")
-    public ResponseEntity<ApiResponse<User>> getUserById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<?>> getUserById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields
+    ) {
+        FieldSet.Selection<User> selection;
+        try {
+            selection = FieldSets.USERS.select(fields);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
         try {
+            if (selection != null) {
+                return ResponseEntity.ok(ApiResponse.success(userService.getUserFields(id, selection)));
+            }
             User user = userService.getUserById(id);
             user.setPassword(null);
             return ResponseEntity.ok(ApiResponse.success(user));
@@ -0,0 +1,119 @@
+package com.capibara.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lista blanca de campos que un cliente puede pedir con ?fields=a,b,c
+ * Cada campo sabe leerse de un objeto en memoria (accessor) y de la base de
+ * datos (ruta del atributo JPA, p. ej. "user.id"), de modo que la misma
+ * selección sirve para proyectar entidades ya cargadas o para elegir columnas.
+ * Los campos se entregan siempre en el orden de la lista blanca.
+ */
+public final class FieldSet<T> {
+
+    private final String resource;
+    private final Map<String, Field<T>> fields;
+
+    private FieldSet(String resource, Map<String, Field<T>> fields) {
+        this.resource = resource;
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    public static <T> Builder<T> builder(String resource) {
+        return new Builder<>(resource);
+    }
+
+    /**
+     * Validar el parámetro fields contra la lista blanca
+     * @return null si no se pidieron campos (respuesta por defecto), también
+     *         cuando fields solo trae comas o espacios (p. ej. fields=",")
+     */
+    public Selection<T> select(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return null;
+        }
+
+        Set<String> names = Arrays.stream(requested.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        if (names.isEmpty()) {
+            return null;
+        }
+
+        Set<String> unknown = new TreeSet<>(names);
+        unknown.removeAll(fields.keySet());
+        if (!unknown.isEmpty()) {
+            throw new RuntimeException("Campos no permitidos para " + resource + ": " + String.join(", ", unknown)
+                    + ". Permitidos: " + String.join(", ", fields.keySet()));
+        }
+
+        List<Field<T>> selected = new ArrayList<>();
+        fields.forEach((name, field) -> {
+            if (names.contains(name)) {
+                selected.add(field);
+            }
+        });
+        return new Selection<>(List.copyOf(selected));
+    }
+
+    public record Field<T>(String name, String path, Function<T, ?> accessor) {
+    }
+
+    /**
+     * Campos elegidos (validados y sin repetir)
+     */
+    public record Selection<T>(List<Field<T>> fields) {
+
+        /**
+         * Clave canónica de la selección (para cachés por variante)
+         */
+        public String key() {
+            return fields.stream().map(Field::name).collect(Collectors.joining(","));
+        }
+
+        public Map<String, Object> project(T item) {
+            Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+            for (Field<T> field : fields) {
+                values.put(field.name(), field.accessor().apply(item));
+            }
+            return values;
+        }
+
+        public List<Map<String, Object>> project(List<T> items) {
+            return items.stream().map(this::project).toList();
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final String resource;
+        private final Map<String, Field<T>> fields = new LinkedHashMap<>();
+
+        private Builder(String resource) {
+            this.resource = resource;
+        }
+
+        public Builder<T> field(String name, Function<T, ?> accessor) {
+            return field(name, name, accessor);
+        }
+
+        public Builder<T> field(String name, String path, Function<T, ?> accessor) {
+            fields.put(name, new Field<>(name, path, accessor));
+            return this;
+        }
+
+        public FieldSet<T> build() {
+            return new FieldSet<>(resource, fields);
+        }
+    }
+}
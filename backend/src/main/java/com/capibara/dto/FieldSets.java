@@ -0,0 +1,50 @@
+package com.capibara.dto;
+
+import com.capibara.models.Order;
+import com.capibara.models.Product;
+import com.capibara.models.User;
+
+/**
+ * Campos que se pueden pedir con ?fields= en las lecturas de productos, órdenes y usuarios
+ * Solo columnas simples: los items de una orden y la contraseña nunca se exponen por aquí
+ */
+public final class FieldSets {
+
+    public static final FieldSet<Product> PRODUCTS = FieldSet.<Product>builder("productos")
+            .field("id", Product::getId)
+            .field("name", Product::getName)
+            .field("description", Product::getDescription)
+            .field("price", Product::getPrice)
+            .field("stock", Product::getStock)
+            .field("category", Product::getCategory)
+            .field("imageUrl", Product::getImageUrl)
+            .field("active", Product::getActive)
+            .field("createdAt", Product::getCreatedAt)
+            .field("updatedAt", Product::getUpdatedAt)
+            .build();
+
+    public static final FieldSet<Order> ORDERS = FieldSet.<Order>builder("órdenes")
+            .field("id", Order::getId)
+            .field("userId", "user.id", order -> order.getUser().getId())
+            .field("userName", "user.name", order -> order.getUser().getName())
+            .field("total", Order::getTotal)
+            .field("status", Order::getStatus)
+            .field("shippingAddress", Order::getShippingAddress)
+            .field("notes", Order::getNotes)
+            .field("createdAt", Order::getCreatedAt)
+            .field("updatedAt", Order::getUpdatedAt)
+            .build();
+
+    public static final FieldSet<User> USERS = FieldSet.<User>builder("usuarios")
+            .field("id", User::getId)
+            .field("name", User::getName)
+            .field("email", User::getEmail)
+            .field("roles", User::getRoles)
+            .field("active", User::getActive)
+            .field("createdAt", User::getCreatedAt)
+            .field("updatedAt", User::getUpdatedAt)
+            .build();
+
+    private FieldSets() {
+    }
+}
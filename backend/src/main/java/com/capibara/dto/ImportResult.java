@@ -0,0 +1,36 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de productos
+ * errors lista como máximo los primeros errores (ver catalog.import.max-errors);
+ * failed cuenta todos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Error de una fila: line es el número de línea (CSV) o de registro (NDJSON)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
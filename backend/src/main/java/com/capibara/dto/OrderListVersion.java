@@ -0,0 +1,11 @@
+package com.capibara.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección agregada de un listado de órdenes para GET condicional
+ * La cantidad detecta órdenes eliminadas; los máximos, órdenes, usuarios o
+ * productos de sus items modificados
+ */
+public record OrderListVersion(Long count, LocalDateTime updatedAt, LocalDateTime ownersUpdatedAt, LocalDateTime productsUpdatedAt) {
+}
@@ -0,0 +1,13 @@
+package com.capibara.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección liviana de una orden para GET condicional (sin cargar items)
+ * @param ownerId        id del usuario dueño (para verificar permisos antes del 304)
+ * @param updatedAt      última modificación de la orden
+ * @param ownerUpdatedAt última modificación del usuario (se incluye en la respuesta)
+ * @param productsUpdatedAt última modificación de los productos de sus items (se incluyen en la respuesta)
+ */
+public record OrderVersion(Long ownerId, LocalDateTime updatedAt, LocalDateTime ownerUpdatedAt, LocalDateTime productsUpdatedAt) {
+}
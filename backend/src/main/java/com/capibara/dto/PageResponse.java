@@ -0,0 +1,25 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para listados paginados
+ * page es null cuando la página se pidió por cursor; nextCursor permite
+ * pedir la siguiente página con el mismo costo que la primera
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+    private Integer page;
+    private int size;
+    private long totalElements;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.capibara.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para pedir varios productos por id en una sola solicitud
+ * (POST /api/products/batch, para listas que no caben en la URL)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "La lista de ids no puede estar vacía")
+    @Size(max = MAX_IDS, message = "Máximo " + MAX_IDS + " ids por solicitud")
+    private List<@NotNull(message = "Los ids no pueden ser nulos") Long> ids;
+}
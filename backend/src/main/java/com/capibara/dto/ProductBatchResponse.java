@@ -0,0 +1,20 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con los productos pedidos por id, en el orden de la solicitud
+ * missingIds lista los ids que no existen (nunca null)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse<T> {
+
+    private List<T> items;
+    private List<Long> missingIds;
+}
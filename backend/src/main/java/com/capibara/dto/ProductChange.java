@@ -0,0 +1,28 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con un cambio del catálogo para la sincronización incremental
+ * UPSERT trae el producto (creado, modificado o desactivado: ver active);
+ * DELETE trae solo productId
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private Type type;
+    private Long productId;
+    private LocalDateTime changedAt;
+    private Object product;
+}
@@ -0,0 +1,22 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una tanda de cambios del catálogo
+ * nextCursor se envía como since en la siguiente consulta (también cuando no
+ * hubo cambios); hasMore indica que hay más cambios disponibles de inmediato
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponse {
+
+    private List<ProductChange> changes;
+    private String nextCursor;
+    private boolean hasMore;
+}
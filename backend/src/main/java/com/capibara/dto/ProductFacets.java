@@ -0,0 +1,35 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con los conteos de facetas del catálogo (solo productos activos)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> availability;
+    private List<PriceRange> priceRanges;
+
+    /**
+     * Rango de precio [min, max); max null = sin límite superior
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRange {
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.capibara.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Filtros combinables y orden de /api/products/query
+ * Todos los filtros son opcionales; los que vienen se combinan con AND.
+ * sort: campo de la lista blanca, con "-" delante para orden descendente
+ * (p. ej. "-price"); siempre se desempata por id para paginar de forma estable.
+ */
+public record ProductQuery(
+        List<String> categories,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean inStock,
+        Boolean active,
+        String text,
+        String sort,
+        int page,
+        int size
+) {
+
+    public static final int MAX_SIZE = 100;
+    public static final List<String> SORT_FIELDS = List.of("id", "name", "price", "stock", "createdAt");
+
+    public ProductQuery {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new RuntimeException("El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+        }
+        if (page < 0) {
+            throw new RuntimeException("El número de página no puede ser negativo");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new RuntimeException("minPrice no puede ser mayor que maxPrice");
+        }
+        categories = categories == null ? List.of() : categories.stream()
+                .filter(category -> category != null && !category.isBlank())
+                .distinct()
+                .toList();
+        text = text == null || text.isBlank() ? null : text.trim();
+        sort = sort == null || sort.isBlank() ? "id" : sort.trim();
+
+        String field = sort.startsWith("-") ? sort.substring(1) : sort;
+        if (!SORT_FIELDS.contains(field)) {
+            throw new RuntimeException("Orden no soportado: " + sort + ". Permitidos: " + String.join(", ", SORT_FIELDS));
+        }
+    }
+
+    public PageRequest toPageRequest() {
+        boolean descending = sort.startsWith("-");
+        String field = descending ? sort.substring(1) : sort;
+        Sort order = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field);
+        if (!field.equals("id")) {
+            order = order.and(Sort.by(Sort.Direction.ASC, "id"));
+        }
+        return PageRequest.of(page, size, order);
+    }
+}
@@ -0,0 +1,51 @@
+package com.capibara.dto;
+
+import com.capibara.models.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección liviana de un producto para listados (tarjetas del catálogo)
+ * Sin fechas y con la descripción ya recortada (shortDescription, lo que muestra
+ * la tarjeta): el detalle completo se obtiene en /api/products/{id}
+ */
+public record ProductSummary(
+        Long id,
+        String name,
+        String shortDescription,
+        BigDecimal price,
+        Integer stock,
+        String category,
+        String imageUrl,
+        Boolean active,
+        boolean available
+) {
+
+    public static final int SHORT_DESCRIPTION_LENGTH = 60;
+
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(
+                product.getId(),
+                product.getName(),
+                shorten(product.getDescription()),
+                product.getPrice(),
+                product.getStock(),
+                product.getCategory(),
+                product.getImageUrl(),
+                product.getActive(),
+                Boolean.TRUE.equals(product.getActive()) && product.getStock() != null && product.getStock() > 0
+        );
+    }
+
+    private static String shorten(String description) {
+        if (description == null || description.length() <= SHORT_DESCRIPTION_LENGTH) {
+            return description;
+        }
+        int end = SHORT_DESCRIPTION_LENGTH;
+        // No cortar un carácter fuera del plano básico (par sustituto) por la mitad
+        if (Character.isHighSurrogate(description.charAt(end - 1))) {
+            end--;
+        }
+        return description.substring(0, end);
+    }
+}
@@ -0,0 +1,45 @@
+package com.capibara.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para ajustar el stock de muchos productos en una sola operación
+ * Los items se aplican en el orden recibido
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequest {
+
+    public enum Mode {
+        SET,    // stock = quantity
+        DELTA   // stock = stock + quantity (puede ser negativo)
+    }
+
+    @NotEmpty(message = "Los ajustes de stock no pueden estar vacíos")
+    @Size(max = 50000, message = "Máximo 50000 ajustes por solicitud")
+    @Valid
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotNull(message = "El ID del producto es obligatorio")
+        private Long productId;
+
+        @NotNull(message = "El modo es obligatorio (SET o DELTA)")
+        private Mode mode = Mode.SET;
+
+        @NotNull(message = "La cantidad es obligatoria")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,21 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de un ajuste masivo de stock
+ * insufficientStockIds: ajustes DELTA que dejarían el stock negativo (no se aplicaron)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResult {
+
+    private int updated;
+    private List<Long> unknownIds;
+    private List<Long> insufficientStockIds;
+}
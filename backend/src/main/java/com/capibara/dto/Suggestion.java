@@ -0,0 +1,24 @@
+package com.capibara.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para sugerencias de autocompletado
+ * productId es null cuando la sugerencia es una categoría
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    private String text;
+    private Type type;
+    private Long productId;
+}
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -20,7 +22,15 @@ import java.time.LocalDateTime;
  * IE3.2.1 - API REST con operaciones CRUD
  */
 @Entity
-@Table(name = "products")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@Table(name = "products", indexes = {
+    // Índices compuestos para /api/products/query: filtro por igualdad primero, rango/orden por precio al final
+    @Index(name = "idx_products_active_category_price", columnList = "active, category, price"),
+    @Index(name = "idx_products_active_price", columnList = "active, price"),
+    @Index(name = "idx_products_category_price", columnList = "category, price"),
+    // Sincronización incremental (/api/products/changes): recorrido por (updated_at, id)
+    @Index(name = "idx_products_updated_at", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
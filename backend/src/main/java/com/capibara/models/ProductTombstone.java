@@ -0,0 +1,33 @@
+package com.capibara.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ProductTombstone - Registro de un producto eliminado
+ * Permite que /api/products/changes informe las eliminaciones a los clientes
+ * que sincronizan el catálogo de forma incremental
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_product_tombstones_deleted_at", columnList = "deleted_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
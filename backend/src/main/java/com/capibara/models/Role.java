@@ -1,10 +1,73 @@
 package com.capibara.models;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum para los roles de usuario
  * IE3.3.1 - Autenticación JWT con Roles
+ * Cada rol tiene un bit fijo: se persiste como máscara en users.roles_mask
+ * (no cambiar los bits existentes, solo agregar nuevos)
  */
 public enum Role {
-    ROLE_USER,    // Usuario normal
-    ROLE_ADMIN    // Administrador
+    ROLE_USER(1),     // Usuario normal
+    ROLE_ADMIN(2);    // Administrador
+
+    private static final Role[] VALUES = values();
+    private static final int ALL_BITS;
+    private static final Set<Role>[] SETS_BY_MASK;
+
+    static {
+        int all = 0;
+        for (Role role : VALUES) {
+            all |= role.bit;
+        }
+        ALL_BITS = all;
+
+        // Un conjunto inmutable por cada máscara posible: fromMask no asigna memoria
+        @SuppressWarnings("unchecked")
+        Set<Role>[] sets = new Set[all + 1];
+        for (int mask = 0; mask <= all; mask++) {
+            EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+            for (Role role : VALUES) {
+                if ((mask & role.bit) != 0) {
+                    roles.add(role);
+                }
+            }
+            sets[mask] = Collections.unmodifiableSet(roles);
+        }
+        SETS_BY_MASK = sets;
+    }
+
+    private final int bit;
+
+    Role(int bit) {
+        this.bit = bit;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    /**
+     * Máscara de bits para un conjunto de roles (null = 0)
+     */
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Conjunto inmutable (compartido) de roles para una máscara; bits desconocidos se ignoran
+     */
+    public static Set<Role> fromMask(int mask) {
+        return SETS_BY_MASK[mask & ALL_BITS];
+    }
 }
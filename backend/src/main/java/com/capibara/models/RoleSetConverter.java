@@ -0,0 +1,23 @@
+package com.capibara.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Set;
+
+/**
+ * Convierte Set<Role> <-> máscara de bits (columna users.roles_mask)
+ */
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<Role>, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<Role> roles) {
+        return Role.toMask(roles);
+    }
+
+    @Override
+    public Set<Role> convertToEntityAttribute(Integer mask) {
+        return Role.fromMask(mask != null ? mask : 0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.capibara.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entidad TokenRevocation - Revocación de tokens JWT
+ * Dos tipos de fila:
+ *  - jti != null: revoca un token concreto (logout)
+ *  - jti == null: revoca todos los tokens del usuario emitidos hasta issuedBefore
+ * Las filas dejan de importar en expiresAt (los tokens afectados ya expiraron)
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+    @Index(name = "idx_token_revocations_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "issued_before")
+    private Instant issuedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -7,11 +7,12 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -20,6 +21,7 @@ import java.util.Set;
  * IE3.3.1 - Autenticación JWT con Roles
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users", uniqueConstraints = {
     @UniqueConstraint(columnNames = "email")
 })
@@ -47,11 +49,13 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Enumerated(EnumType.STRING)
-    @Column(name = "role")
-    private Set<Role> roles = new HashSet<>();
+    /**
+     * Roles guardados como máscara de bits en la misma fila (ver Role)
+     * El conjunto es inmutable: usar setRoles/addRole/removeRole para modificarlo
+     */
+    @Convert(converter = RoleSetConverter.class)
+    @Column(name = "roles_mask", nullable = false, columnDefinition = "integer default 0")
+    private Set<Role> roles = Role.fromMask(0);
 
     @Column(nullable = false)
     private Boolean active = true;
@@ -64,13 +68,17 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    public void setRoles(Set<Role> roles) {
+        this.roles = Role.fromMask(Role.toMask(roles));
+    }
+
     // Métodos de utilidad
     public void addRole(Role role) {
-        this.roles.add(role);
+        this.roles = Role.fromMask(Role.toMask(roles) | role.getBit());
     }
 
     public void removeRole(Role role) {
-        this.roles.remove(role);
+        this.roles = Role.fromMask(Role.toMask(roles) & ~role.getBit());
     }
 
     public boolean hasRole(Role role) {
@@ -0,0 +1,79 @@
+package com.capibara.repositories;
+
+import com.capibara.dto.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas que seleccionan solo las columnas pedidas con ?fields=
+ * Arma un SELECT de tuplas con Criteria API: no se hidratan entidades ni se
+ * guardan snapshots para dirty checking, y solo se hace JOIN si algún campo
+ * pedido lo necesita (p. ej. user.name).
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param filter condición opcional (null = todas las filas)
+     * @return una fila por entidad: nombre del campo -> valor, en el orden de la selección
+     */
+    public <T> List<Map<String, Object>> findFields(
+            Class<T> type,
+            FieldSet.Selection<T> selection,
+            Specification<T> filter,
+            Sort sort
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        List<Selection<?>> columns = new ArrayList<>();
+        for (FieldSet.Field<T> field : selection.fields()) {
+            columns.add(path(root, field.path()).alias(field.name()));
+        }
+        query.multiselect(columns);
+
+        if (filter != null) {
+            query.where(filter.toPredicate(root, query, cb));
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>(columns.size() * 2);
+            for (FieldSet.Field<T> field : selection.fields()) {
+                row.put(field.name(), tuple.get(field.name()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -1,13 +1,17 @@
 package com.capibara.repositories;
 
+import com.capibara.dto.OrderListVersion;
+import com.capibara.dto.OrderVersion;
 import com.capibara.models.Order;
 import com.capibara.models.OrderStatus;
 import com.capibara.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la entidad Order
@@ -52,4 +56,43 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      */
     @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
     List<Order> findAllOrderByCreatedAtDesc();
+
+    /**
+     * Dueño y marcas de modificación de una orden (sin cargar la orden)
+     * @param id ID de la orden
+     * @return Proyección para GET condicional
+     */
+    @Query("SELECT new com.capibara.dto.OrderVersion(u.id, o.updatedAt, u.updatedAt, " +
+           "(SELECT MAX(p.updatedAt) FROM OrderItem i JOIN i.product p WHERE i.order.id = o.id)) " +
+           "FROM Order o JOIN o.user u WHERE o.id = :id")
+    Optional<OrderVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Versión agregada de todas las órdenes
+     * @return Proyección para GET condicional
+     */
+    @Query("SELECT new com.capibara.dto.OrderListVersion(COUNT(o), MAX(o.updatedAt), MAX(u.updatedAt), " +
+           "(SELECT MAX(p.updatedAt) FROM OrderItem i JOIN i.product p)) " +
+           "FROM Order o JOIN o.user u")
+    OrderListVersion findListVersion();
+
+    /**
+     * Versión agregada de las órdenes de un usuario
+     * @param userId ID del usuario
+     * @return Proyección para GET condicional
+     */
+    @Query("SELECT new com.capibara.dto.OrderListVersion(COUNT(o), MAX(o.updatedAt), MAX(u.updatedAt), " +
+           "(SELECT MAX(p.updatedAt) FROM OrderItem i JOIN i.product p WHERE i.order.user.id = :userId)) " +
+           "FROM Order o JOIN o.user u WHERE u.id = :userId")
+    OrderListVersion findListVersionByUserId(@Param("userId") Long userId);
+
+    /**
+     * Versión agregada de las órdenes en un estado
+     * @param status Estado de la orden
+     * @return Proyección para GET condicional
+     */
+    @Query("SELECT new com.capibara.dto.OrderListVersion(COUNT(o), MAX(o.updatedAt), MAX(u.updatedAt), " +
+           "(SELECT MAX(p.updatedAt) FROM OrderItem i JOIN i.product p WHERE i.order.status = :status)) " +
+           "FROM Order o JOIN o.user u WHERE o.status = :status")
+    OrderListVersion findListVersionByStatus(@Param("status") OrderStatus status);
 }
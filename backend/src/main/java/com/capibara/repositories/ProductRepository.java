@@ -1,10 +1,18 @@
 package com.capibara.repositories;
 
 import com.capibara.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,13 +21,23 @@ import java.util.List;
  * IE3.2.1 - API REST con operaciones CRUD
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    /**
+     * Región del caché de consultas para los finders (ver hibernate-cache.conf)
+     * La búsqueda por nombre no se cachea: cada texto distinto sería una entrada nueva
+     */
+    String QUERY_CACHE_REGION = "products-queries";
 
     /**
      * Busca productos por categoría
      * @param category Categoría del producto
      * @return Lista de productos
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Product> findByCategory(String category);
 
     /**
@@ -27,6 +45,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param active Estado de activación
      * @return Lista de productos
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Product> findByActive(Boolean active);
 
     /**
@@ -40,6 +62,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Busca productos disponibles (activos y con stock)
      * @return Lista de productos disponibles
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.stock > 0")
     List<Product> findAvailableProducts();
 
@@ -49,5 +75,37 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param active Estado de activación
      * @return Lista de productos
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Product> findByCategoryAndActive(String category, Boolean active);
+
+    /**
+     * Relee productos desde la base de datos sin usar ni poblar la caché L2
+     * (después de modificarlos con SQL directo en la misma transacción)
+     * @param ids IDs de los productos
+     * @return Lista de productos
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllByIdBypassingCache(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Productos creados o modificados después de (after, afterId) y hasta until, en orden (updatedAt, id)
+     * Recorre el índice idx_products_updated_at (keyset, sin OFFSET)
+     */
+    @Query("SELECT p FROM Product p " +
+            "WHERE p.updatedAt <= :until " +
+            "AND (p.updatedAt > :after OR (p.updatedAt = :after AND p.id > :afterId)) " +
+            "ORDER BY p.updatedAt, p.id")
+    List<Product> findChangedSince(
+            @Param("after") LocalDateTime after,
+            @Param("afterId") Long afterId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable
+    );
 }
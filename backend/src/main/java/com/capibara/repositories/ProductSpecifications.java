@@ -0,0 +1,58 @@
+package com.capibara.repositories;
+
+import com.capibara.dto.ProductQuery;
+import com.capibara.models.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Traducción de ProductQuery a una sola consulta Criteria (Specification)
+ * Solo se agregan los predicados de los filtros presentes. El orden de los
+ * predicados sigue los índices compuestos de Product: active, category, price.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductQuery query) {
+        return (root, criteria, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (query.active() != null) {
+                predicates.add(cb.equal(root.get("active"), query.active()));
+            }
+            if (!query.categories().isEmpty()) {
+                predicates.add(root.get("category").in(query.categories()));
+            }
+            if (query.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), query.minPrice()));
+            }
+            if (query.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), query.maxPrice()));
+            }
+            if (query.inStock() != null) {
+                predicates.add(query.inStock()
+                        ? cb.greaterThan(root.get("stock"), 0)
+                        : cb.equal(root.get("stock"), 0));
+            }
+            if (query.text() != null) {
+                String pattern = "%" + escapeLike(query.text().toLowerCase(Locale.ROOT)) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("category")), pattern, '\\')
+                ));
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
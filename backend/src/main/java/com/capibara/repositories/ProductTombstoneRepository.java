@@ -0,0 +1,33 @@
+package com.capibara.repositories;
+
+import com.capibara.models.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad ProductTombstone
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Eliminaciones posteriores a (after, afterId) y hasta until, en orden (deletedAt, id)
+     * Recorre el índice idx_product_tombstones_deleted_at (keyset, sin OFFSET)
+     */
+    @Query("SELECT t FROM ProductTombstone t " +
+            "WHERE t.deletedAt <= :until " +
+            "AND (t.deletedAt > :after OR (t.deletedAt = :after AND t.id > :afterId)) " +
+            "ORDER BY t.deletedAt, t.id")
+    List<ProductTombstone> findDeletedSince(
+            @Param("after") LocalDateTime after,
+            @Param("afterId") Long afterId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable
+    );
+}
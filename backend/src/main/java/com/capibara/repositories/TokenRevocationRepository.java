@@ -0,0 +1,33 @@
+package com.capibara.repositories;
+
+import com.capibara.models.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad TokenRevocation
+ */
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    /**
+     * Revocaciones aún vigentes (se cargan en memoria al iniciar)
+     * @param now Instante actual
+     * @return Lista de revocaciones
+     */
+    List<TokenRevocation> findByExpiresAtAfter(Instant now);
+
+    /**
+     * Elimina revocaciones cuyos tokens ya expiraron
+     * @param now Instante actual
+     * @return Filas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
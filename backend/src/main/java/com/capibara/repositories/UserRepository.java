@@ -2,6 +2,7 @@ package com.capibara.repositories;
 
 import com.capibara.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -33,4 +34,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Lista de usuarios
      */
     java.util.List<User> findByActive(Boolean active);
+
+    /**
+     * IDs de usuarios desactivados (sin cargar las entidades)
+     * @return Lista de IDs
+     */
+    @Query("SELECT u.id FROM User u WHERE u.active = false")
+    java.util.List<Long> findInactiveUserIds();
 }
@@ -0,0 +1,92 @@
+package com.capibara.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt con factor de trabajo calibrado para el hardware donde corre
+ * matches() acepta hashes de cualquier costo; upgradeEncoding() indica si el
+ * hash guardado usa un costo menor al actual, para que AuthService.login lo
+ * regenere tras un login exitoso (sin migrar la columna users.password).
+ * Nunca se baja el costo: un arranque lento o nodos calibrados distinto no
+ * deben debilitar hashes ya guardados.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final String CALIBRATION_SAMPLE = "calibracion-capibara";
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Elegir el mayor costo cuyo hash tarda como máximo targetMillis
+     * (nunca menos de minStrength ni más de maxStrength)
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(long targetMillis, int minStrength, int maxStrength) {
+        // Calentamiento para no medir la carga de clases/JIT
+        new BCryptPasswordEncoder(minStrength).encode(CALIBRATION_SAMPLE);
+
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(strength).encode(CALIBRATION_SAMPLE);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            logger.debug("Calibración BCrypt: costo {} = {} ms", strength, elapsedMillis);
+
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+            // Cada punto de costo duplica el tiempo: no vale la pena medir el siguiente
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+        }
+
+        logger.info("✓ BCrypt calibrado: costo {} (objetivo {} ms)", chosen, targetMillis);
+        return new AdaptiveBCryptPasswordEncoder(chosen);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * true solo si el hash fue generado con un costo menor al actual
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
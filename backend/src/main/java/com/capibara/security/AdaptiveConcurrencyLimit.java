@@ -0,0 +1,138 @@
+package com.capibara.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo (estilo gradiente)
+ * Compara la latencia reciente con la latencia "sin carga" (promedio largo):
+ * si la latencia sube, el límite de peticiones en vuelo baja; si se mantiene,
+ * el límite crece de a poco (~√límite). Las peticiones sobre el límite se
+ * rechazan de inmediato en vez de quedar encoladas.
+ * release() nunca se bloquea: las muestras se acumulan en contadores atómicos
+ * y las procesa quien consiga el candado del estimador (tryLock); si otro hilo
+ * lo tiene, la muestra queda para la siguiente pasada.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Muestras pendientes desde la última pasada del estimador
+    private final LongAdder pendingRttNanos = new LongAdder();
+    private final LongAdder pendingSamples = new LongAdder();
+    private final LongAccumulator pendingMaxInFlight = new LongAccumulator(Math::max, 0);
+    private final ReentrantLock estimatorLock = new ReentrantLock();
+
+    // Estado del estimador: solo se modifica con estimatorLock tomado
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Reservar un lugar; false si ya hay "limit" peticiones en vuelo
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Liberar el lugar y registrar la latencia observada
+     * @param rttNanos duración de la petición
+     * @param inFlightAtStart peticiones en vuelo cuando empezó
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        pendingRttNanos.add(rttNanos);
+        pendingMaxInFlight.accumulate(inFlightAtStart);
+        pendingSamples.increment();
+
+        if (estimatorLock.tryLock()) {
+            try {
+                drainSamples();
+            } finally {
+                estimatorLock.unlock();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Procesar las muestras acumuladas como una sola (latencia promedio, mayor
+     * concurrencia observada), con el peso de todas en los promedios móviles
+     */
+    private void drainSamples() {
+        long samples = pendingSamples.sumThenReset();
+        if (samples == 0) {
+            return;
+        }
+        // Aproximado: una muestra que llega entre estas lecturas se cuenta en la siguiente pasada
+        long rttNanos = pendingRttNanos.sumThenReset() / samples;
+        int inFlightAtStart = (int) pendingMaxInFlight.getThenReset();
+
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+
+        shortRttNanos += (rttNanos - shortRttNanos) * weight(SHORT_WINDOW, samples);
+        longRttNanos += (rttNanos - longRttNanos) * weight(LONG_WINDOW, samples);
+
+        // Si la latencia base quedó muy por encima de la actual, se recupera rápido
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Con poca carga la latencia no dice nada del límite: no crecer sin uso
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Peso de n muestras iguales en un promedio móvil exponencial de ventana window
+     */
+    private static double weight(int window, long samples) {
+        return samples == 1 ? 1.0 / window : 1 - Math.pow(1 - 1.0 / window, samples);
+    }
+}
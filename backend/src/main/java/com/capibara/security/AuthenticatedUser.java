@@ -0,0 +1,39 @@
+package com.capibara.security;
+
+import lombok.Value;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal autenticado instalado por JwtAuthenticationFilter
+ * Lleva el id del usuario (claim "uid" del token), de modo que los
+ * controladores no necesitan buscar al usuario por email en cada request
+ */
+@Value
+public class AuthenticatedUser implements Principal {
+
+    Long id;
+    String email;
+    List<String> roles;
+
+    public static AuthenticatedUser from(VerifiedToken token) {
+        return new AuthenticatedUser(token.getUserId(), token.getSubject(), token.getRoles());
+    }
+
+    /**
+     * Authentication.getName() sigue devolviendo el email
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return roles.contains("ROLE_ADMIN");
+    }
+
+    public boolean owns(Long ownerId) {
+        return id.equals(ownerId);
+    }
+}
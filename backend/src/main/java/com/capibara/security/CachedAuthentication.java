@@ -0,0 +1,18 @@
+package com.capibara.security;
+
+import lombok.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Token verificado junto con su principal y authorities ya construidos (inmutables)
+ * Se reutiliza entre requests que presentan el mismo token
+ */
+@Value
+public class CachedAuthentication {
+
+    VerifiedToken token;
+    AuthenticatedUser principal;
+    List<SimpleGrantedAuthority> authorities;
+}
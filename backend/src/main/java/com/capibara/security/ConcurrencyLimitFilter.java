@@ -0,0 +1,199 @@
+package com.capibara.security;
+
+import com.capibara.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load shedding: límite de concurrencia adaptativo por grupo de rutas
+ * Se ejecuta antes de Spring Security para rechazar barato (503 + Retry-After)
+ * cuando un grupo está saturado; así la sobrecarga del checkout no arrastra la
+ * latencia del catálogo.
+ * Las peticiones asíncronas (p. ej. StreamingResponseBody) ocupan su lugar hasta
+ * que la respuesta termina, no hasta que vuelve el controlador.
+ * Métricas: http.concurrency.limit, http.concurrency.inflight y http.concurrency.shed (por grupo)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Grupos de rutas con límite independiente
+     */
+    enum RouteGroup {
+        CATALOG,    // GET /api/products/** (salvo /export) y POST /api/products/batch
+        ORDERS,     // Escrituras en /api/orders/**
+        ADMIN       // /api/users/**, /api/admin/**, escrituras y exportación de /api/products/**
+    }
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Map<RouteGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> shedCounters = new EnumMap<>(RouteGroup.class);
+
+    public ConcurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${concurrency-limit.initial:20}") int initialLimit,
+            @Value("${concurrency-limit.min:4}") int minLimit,
+            @Value("${concurrency-limit.max:200}") int maxLimit
+    ) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+
+        for (RouteGroup group : RouteGroup.values()) {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+            String tag = group.name().toLowerCase();
+
+            limits.put(group, limit);
+            shedCounters.put(group, Counter.builder("http.concurrency.shed")
+                    .description("Peticiones rechazadas por límite de concurrencia")
+                    .tag("group", tag)
+                    .register(meterRegistry));
+            Gauge.builder("http.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("group", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RouteGroup group = resolveGroup(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimit limit = limits.get(group);
+        if (!limit.tryAcquire()) {
+            shedCounters.get(group).increment();
+            reject(response);
+            return;
+        }
+
+        int inFlightAtStart = limit.getInFlight();
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // StreamingResponseBody y similares: el lugar sigue ocupado hasta que termina la respuesta
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limit, start, inFlightAtStart));
+            } else {
+                limit.release(System.nanoTime() - start, inFlightAtStart);
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar de una petición asíncrona una sola vez, al completarse,
+     * fallar o vencer el tiempo de espera
+     */
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(AdaptiveConcurrencyLimit limit, long start, int inFlightAtStart) {
+            this.limit = limit;
+            this.start = start;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo startAsync descarta los listeners: seguir escuchando el nuevo ciclo
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, inFlightAtStart);
+            }
+        }
+    }
+
+    static RouteGroup resolveGroup(String method, String path) {
+        boolean isGet = "GET".equalsIgnoreCase(method);
+
+        if (path.startsWith("/api/products")) {
+            // La exportación es asíncrona y ocupa su lugar mientras dura el streaming
+            // (segundos o minutos): se limita con administración, no con la tienda
+            if (path.equals("/api/products/export")) {
+                return RouteGroup.ADMIN;
+            }
+            // POST /batch es una lectura (ids en el cuerpo), no una escritura de administración
+            return isGet || path.equals("/api/products/batch") ? RouteGroup.CATALOG : RouteGroup.ADMIN;
+        }
+        if (path.startsWith("/api/orders")) {
+            return isGet ? null : RouteGroup.ORDERS;
+        }
+        if (path.startsWith("/api/users") || path.startsWith("/api/admin")) {
+            return RouteGroup.ADMIN;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Servicio sobrecargado, reintente en unos segundos"));
+    }
+}
@@ -1,50 +1,36 @@
 package com.capibara.security;
 
-import com.capibara.models.User;
-import com.capibara.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.Collection;
-import java.util.stream.Collectors;
 
 /**
  * Servicio personalizado para cargar detalles de usuario
  * IE3.3.1 - Autenticación JWT con Roles
+ * Las cuentas se resuelven desde UserAccountCache (sin consulta en cada login)
  */
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserAccountCache userAccountCache;
 
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserAccount user = userAccountCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
 
         return org.springframework.security.core.userdetails.User
                 .builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
-                .authorities(getAuthorities(user))
+                .authorities(user.getAuthorities())
                 .accountExpired(false)
-                .accountLocked(!user.getActive())
+                .accountLocked(!user.isActive())
                 .credentialsExpired(false)
-                .disabled(!user.getActive())
+                .disabled(!user.isActive())
                 .build();
     }
-
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.name()))
-                .collect(Collectors.toList());
-    }
 }
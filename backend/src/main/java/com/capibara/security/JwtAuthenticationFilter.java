@@ -1,11 +1,8 @@
 package com.capibara.security;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,25 +11,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Filtro JWT - VERSIÓN DEFINITIVA
  * Compatible con JJWT 0.11.5
  * CORRIGE: Error "Access Denied" en login
+ * La firma se verifica una sola vez por token: los tokens repetidos
+ * se resuelven desde VerifiedTokenCache sin criptografía y la revocación
+ * se comprueba en memoria con TokenRevocationService
  */
 @Component
 @RequiredArgsConstructor
@@ -40,8 +35,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * RUTAS PÚBLICAS - SIN "/" AL FINAL
@@ -95,10 +90,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
+            String token = extractTokenFromRequest(request);
+
             // ═══════════════════════════════════════════════════
             // PASO 3: CASO ESPECIAL - GET /api/products es público
+            // Si trae token se procesa igual (p. ej. /export es solo ADMIN)
             // ═══════════════════════════════════════════════════
-            if ("GET".equalsIgnoreCase(method) && requestPath.startsWith("/api/products")) {
+            if (token == null && "GET".equalsIgnoreCase(method) && requestPath.startsWith("/api/products")) {
                 logger.debug("✓ GET /api/products - público SIN JWT");
                 logger.debug("═══════════════════════════════════");
                 filterChain.doFilter(request, response);
@@ -109,8 +107,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // PASO 4: RUTA PROTEGIDA - Requiere JWT
             // ═══════════════════════════════════════════════════
             logger.debug("⚠️  RUTA PROTEGIDA - Verificando JWT");
-            
-            String token = extractTokenFromRequest(request);
 
             if (token == null) {
                 logger.warn("✗ NO hay token JWT en headers");
@@ -124,29 +120,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // ═══════════════════════════════════════════════════
             // PASO 5: Validar y procesar token
             // ═══════════════════════════════════════════════════
-            if (validateToken(token)) {
-                String username = extractUsername(token);
-                List<String> roles = extractRoles(token);
+            CachedAuthentication cached = verifiedTokenCache.get(token);
+            AuthenticatedUser principal = cached.getPrincipal();
 
-                logger.debug("✓✓✓ TOKEN VÁLIDO ✓✓✓");
-                logger.debug("✓ Usuario: {}", username);
-                logger.debug("✓ Roles: {}", roles);
+            if (principal.getId() == null) {
+                // Token emitido antes de incluir el claim "uid": requiere nuevo login
+                logger.warn("✗ Token JWT sin id de usuario - requiere nuevo login");
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            if (tokenRevocationService.isRevoked(cached.getToken())) {
+                // Usuario desactivado, logout o roles modificados: búsqueda O(1) en memoria
+                logger.warn("✗ Token JWT REVOCADO para usuario {}", principal.getEmail());
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-                // Crear autenticación
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+            logger.debug("✓✓✓ TOKEN VÁLIDO ✓✓✓");
+            logger.debug("✓ Usuario: {} (id {})", principal.getEmail(), principal.getId());
+            logger.debug("✓ Roles: {}", principal.getRoles());
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
+            // Crear autenticación (principal y authorities ya construidos en caché)
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(principal, null, cached.getAuthorities());
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                logger.debug("✓ Usuario AUTENTICADO correctamente");
-            } else {
-                logger.warn("✗ Token JWT INVÁLIDO o EXPIRADO");
-            }
+            logger.debug("✓ Usuario AUTENTICADO correctamente");
 
             logger.debug("═══════════════════════════════════");
 
@@ -194,65 +196,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         return null;
     }
-
-    // ════════════════════════════════════════════════════════════════
-    // MÉTODOS COMPATIBLES CON JJWT 0.11.5
-    // ════════════════════════════════════════════════════════════════
-
-    /**
-     * Validar token JWT
-     * COMPATIBLE CON JJWT 0.11.5
-     */
-    private boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-            // ✓ JJWT 0.11.5 usa parserBuilder()
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-
-            return true;
-
-        } catch (Exception e) {
-            logger.debug("Token inválido: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Extraer username del token
-     * COMPATIBLE CON JJWT 0.11.5
-     */
-    private String extractUsername(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        // ✓ JJWT 0.11.5 usa parserBuilder() y getBody()
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
-
-    /**
-     * Extraer roles del token
-     * COMPATIBLE CON JJWT 0.11.5
-     */
-    @SuppressWarnings("unchecked")
-    private List<String> extractRoles(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        // ✓ JJWT 0.11.5 usa parserBuilder() y getBody()
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return (List<String>) claims.get("roles");
-    }
-}
\ No newline at end of file
+}
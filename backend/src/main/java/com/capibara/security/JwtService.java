@@ -1,32 +1,34 @@
 package com.capibara.security;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para generación y validación de tokens JWT
  * Compatible con JJWT 0.11.x
- * 
+ * La verificación se delega en JwtVerifier (clave y parser compartidos)
  */
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    /** Claim con el id del usuario (evita buscarlo por email en cada request) */
+    static final String USER_ID_CLAIM = "uid";
+
+    private final JwtVerifier jwtVerifier;
 
     @Value("${jwt.expiration:86400000}") // 24 horas por defecto
     private long jwtExpiration;
@@ -35,8 +37,10 @@ public class JwtService {
      * Generar token JWT para un usuario
      * CRÍTICO: Mantiene el prefijo ROLE_ en los roles
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(Long userId, UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+
+        claims.put(USER_ID_CLAIM, userId);
         
         // Agregar roles al token CON prefijo ROLE_
         List<String> roles = userDetails.getAuthorities()
@@ -52,72 +56,56 @@ public class JwtService {
 
     /**
      * Crear token JWT con claims personalizados
-     * Compatible con JJWT 0.11.x usando parserBuilder()
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
                 .setClaims(claims)
+                // jti: permite revocar este token concreto (logout)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expirationDate)
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(jwtVerifier.getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Extraer username del token
-     */
-    public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    /**
-     * Extraer fecha de expiración
+     * Verificar el token una sola vez y obtener sus datos
      */
-    public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
+    public VerifiedToken verify(String token) {
+        return jwtVerifier.verify(token);
     }
 
     /**
-     * Extraer todos los claims del token
-     * Compatible con JJWT 0.11.x usando parserBuilder()
+     * Extraer username del token
      */
-    private Claims extractAllClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public String extractUsername(String token) {
+        return verify(token).getSubject();
     }
 
     /**
-     * Verificar si el token ha expirado
+     * Extraer fecha de expiración
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Date extractExpiration(String token) {
+        return Date.from(verify(token).getExpiresAt());
     }
 
     /**
-     * Validar token JWT
+     * Validar token JWT (una sola verificación de firma)
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified.getSubject().equals(userDetails.getUsername())
+                && !verified.isExpired(Instant.now());
     }
 
     /**
      * Extraer roles del token
      */
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        return (List<String>) claims.get("roles");
+        return verify(token).getRoles();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.capibara.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Motor de verificación de tokens JWT
+ * La clave HMAC y el parser se construyen una sola vez al iniciar;
+ * cada token se verifica exactamente una vez por llamada a verify()
+ * Compatible con JJWT 0.11.5
+ */
+@Component
+public class JwtVerifier {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtVerifier(@Value("${jwt.secret}") String jwtSecret) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // JwtParser es inmutable y thread-safe: se comparte entre requests
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * Verificar firma y expiración del token y extraer sus claims
+     * Lanza las excepciones de JJWT (ExpiredJwtException, SignatureException, ...)
+     * para que el llamador decida cómo registrarlas
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+
+        return new VerifiedToken(
+                claims.getId(),
+                extractUserId(claims),
+                claims.getSubject(),
+                extractRoles(claims),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null
+        );
+    }
+
+    /**
+     * Clave de firma compartida con JwtService
+     */
+    SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    private Long extractUserId(Claims claims) {
+        Object userId = claims.get(JwtService.USER_ID_CLAIM);
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .toList();
+    }
+}
@@ -0,0 +1,21 @@
+package com.capibara.security;
+
+/**
+ * El pool de hashing de contraseñas está saturado
+ * Se responde de inmediato (503 + Retry-After) en vez de encolar el request
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Servicio de autenticación saturado, reintente en " + retryAfterSeconds + " segundos");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,136 @@
+package com.capibara.security;
+
+import com.capibara.config.RateLimitProperties;
+import com.capibara.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting por token bucket para rutas costosas (login, registro, checkout)
+ * Se ejecuta en la cadena de seguridad después de JwtAuthenticationFilter para
+ * poder usar el usuario autenticado como clave. Responde 429 + Retry-After.
+ * Métricas: http.ratelimit.throttled (por regla) y cache.* con cache=ratelimit.buckets
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<CompiledRule> rules;
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.rules = properties.getRules().stream()
+                .map(rule -> new CompiledRule(
+                        rule,
+                        PathPatternParser.defaultInstance.parse(rule.getPath()),
+                        Counter.builder("http.ratelimit.throttled")
+                                .description("Peticiones rechazadas por rate limiting")
+                                .tag("rule", rule.getName())
+                                .register(meterRegistry)))
+                .toList();
+        // Buckets inactivos se descartan: memoria acotada aunque haya muchas IPs
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "ratelimit.buckets");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        CompiledRule rule = findRule(request);
+
+        if (rule != null) {
+            String key = rule.rule().getName() + "|" + resolveKey(rule.rule(), request);
+            TokenBucket bucket = buckets.get(key, k ->
+                    new TokenBucket(rule.rule().getCapacity(), rule.rule().getRefillPerSecond()));
+
+            long waitNanos = bucket.tryAcquire();
+            if (waitNanos > 0) {
+                rule.throttled().increment();
+                logger.warn("✗ Rate limit '{}' excedido para {}", rule.rule().getName(), key);
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledRule findRule(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (CompiledRule rule : rules) {
+            String method = rule.rule().getMethod();
+            if ((method == null || method.isBlank() || method.equalsIgnoreCase(request.getMethod()))
+                    && rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String resolveKey(RateLimitProperties.Rule rule, HttpServletRequest request) {
+        if (rule.getKey() == RateLimitProperties.KeyType.PRINCIPAL) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "user:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Demasiadas solicitudes, reintente en " + retryAfterSeconds + " segundos"));
+    }
+
+    private record CompiledRule(RateLimitProperties.Rule rule, PathPattern pattern, Counter throttled) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.capibara.security;
+
+import com.capibara.models.Role;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Listas de authorities precalculadas para cada máscara de roles
+ * Construir las authorities de un usuario no asigna colecciones nuevas
+ */
+public final class RoleAuthorities {
+
+    private static final List<List<SimpleGrantedAuthority>> BY_MASK;
+
+    static {
+        int all = Role.toMask(List.of(Role.values()));
+        List<SimpleGrantedAuthority>[] lists = newArray(all + 1);
+        for (int mask = 0; mask <= all; mask++) {
+            lists[mask] = Role.fromMask(mask).stream()
+                    .map(role -> new SimpleGrantedAuthority(role.name()))
+                    .toList();
+        }
+        BY_MASK = List.of(lists);
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static List<SimpleGrantedAuthority> of(Collection<Role> roles) {
+        return BY_MASK.get(Role.toMask(roles));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SimpleGrantedAuthority>[] newArray(int size) {
+        return new List[size];
+    }
+}
@@ -0,0 +1,42 @@
+package com.capibara.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks (formulación GCRA)
+ * Todo el estado es un único long -el "instante teórico de llegada"-
+ * actualizado con CAS, por lo que tryAcquire() no bloquea ni asigna memoria
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Consumir un token
+     * @return 0 si se permitió; si no, nanosegundos hasta que haya un token
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long waitNanos = next - burstNanos - now;
+
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
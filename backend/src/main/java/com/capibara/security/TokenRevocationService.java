@@ -0,0 +1,170 @@
+package com.capibara.security;
+
+import com.capibara.models.TokenRevocation;
+import com.capibara.repositories.TokenRevocationRepository;
+import com.capibara.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocación de tokens JWT sin consultar la base de datos por request
+ * Mantiene en memoria:
+ *  - ids de usuarios revocados (desactivados o eliminados)
+ *  - jti de tokens revocados (logout)
+ *  - por usuario, el instante "tokens emitidos hasta aquí no son válidos"
+ * Se carga al iniciar desde users + token_revocations y se actualiza en cada
+ * revocación; el filtro JWT solo hace búsquedas O(1) en memoria.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final UserRepository userRepository;
+
+    private final Set<Long> revokedUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> issuedBeforeByUser = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
+    @PostConstruct
+    public void load() {
+        revokedUsers.addAll(userRepository.findInactiveUserIds());
+
+        for (TokenRevocation revocation : tokenRevocationRepository.findByExpiresAtAfter(Instant.now())) {
+            remember(revocation);
+        }
+
+        logger.info("✓ Revocaciones cargadas: {} usuarios, {} tokens, {} epochs",
+                revokedUsers.size(), revokedTokens.size(), issuedBeforeByUser.size());
+    }
+
+    /**
+     * ¿El token fue revocado? Solo búsquedas en memoria
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        Long userId = token.getUserId();
+        if (userId != null && revokedUsers.contains(userId)) {
+            return true;
+        }
+
+        if (token.getTokenId() != null && revokedTokens.containsKey(token.getTokenId())) {
+            return true;
+        }
+
+        Instant issuedBefore = userId != null ? issuedBeforeByUser.get(userId) : null;
+        // "iat" tiene precisión de segundos: un token del mismo segundo también se revoca
+        return issuedBefore != null
+                && token.getIssuedAt() != null
+                && !token.getIssuedAt().isAfter(issuedBefore);
+    }
+
+    /**
+     * Revocar un token concreto (logout)
+     */
+    @Transactional
+    public void revokeToken(VerifiedToken token) {
+        if (token.getTokenId() == null) {
+            // Token sin jti: se revocan todos los tokens del usuario hasta ahora
+            revokeTokensIssuedBefore(token.getUserId());
+            return;
+        }
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(token.getUserId());
+        revocation.setJti(token.getTokenId());
+        revocation.setExpiresAt(token.getExpiresAt());
+
+        TokenRevocation saved = tokenRevocationRepository.save(revocation);
+        afterCommit(() -> remember(saved));
+    }
+
+    /**
+     * Invalidar todos los tokens emitidos hasta ahora para el usuario
+     * (p. ej. al quitarle un rol, ya que los roles viajan en el token)
+     */
+    @Transactional
+    public void revokeTokensIssuedBefore(Long userId) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setIssuedBefore(now);
+        // Pasado jwt.expiration todos los tokens anteriores ya expiraron solos
+        revocation.setExpiresAt(now.plusMillis(jwtExpiration));
+
+        TokenRevocation saved = tokenRevocationRepository.save(revocation);
+        afterCommit(() -> remember(saved));
+    }
+
+    /**
+     * Revocar al usuario completo (desactivación o eliminación)
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        afterCommit(() -> revokedUsers.add(userId));
+        // Fila persistente: si el usuario se elimina, users ya no lo recordará al reiniciar
+        revokeTokensIssuedBefore(userId);
+    }
+
+    /**
+     * Limpieza periódica de revocaciones cuyos tokens ya expiraron
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = tokenRevocationRepository.deleteExpired(now);
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        issuedBeforeByUser.values().removeIf(issuedBefore ->
+                !issuedBefore.plusMillis(jwtExpiration).isAfter(now));
+
+        if (deleted > 0) {
+            logger.debug("Revocaciones expiradas eliminadas: {}", deleted);
+        }
+    }
+
+    /**
+     * La memoria solo refleja revocaciones confirmadas: si la transacción del
+     * llamador hace rollback (p. ej. falla al eliminar el usuario), no se aplica
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void remember(TokenRevocation revocation) {
+        if (revocation.getJti() != null) {
+            revokedTokens.put(revocation.getJti(), revocation.getExpiresAt());
+        } else if (revocation.getIssuedBefore() != null) {
+            issuedBeforeByUser.merge(revocation.getUserId(), revocation.getIssuedBefore(),
+                    (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.capibara.security;
+
+import com.capibara.models.Role;
+import com.capibara.models.User;
+import lombok.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copia inmutable de un usuario (datos de cuenta y estado) para la caché por email
+ * No es una entidad JPA: puede compartirse entre hilos sin sesión de Hibernate
+ */
+@Value
+public class UserAccount {
+
+    Long id;
+    String name;
+    String email;
+    String password;
+    Set<Role> roles;
+    boolean active;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    List<SimpleGrantedAuthority> authorities;
+
+    public static UserAccount from(User user) {
+        // User.getRoles() ya es un conjunto inmutable compartido
+        Set<Role> roles = user.getRoles();
+        return new UserAccount(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getPassword(),
+                roles,
+                Boolean.TRUE.equals(user.getActive()),
+                user.getCreatedAt(),
+                user.getUpdatedAt(),
+                RoleAuthorities.of(roles)
+        );
+    }
+
+    public boolean isAdmin() {
+        return roles.contains(Role.ROLE_ADMIN);
+    }
+
+    /**
+     * Usuario desacoplado para respuestas de la API (sin contraseña)
+     */
+    public User toUserWithoutPassword() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword(null);
+        user.setRoles(roles);
+        user.setActive(active);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        return user;
+    }
+}
@@ -0,0 +1,69 @@
+package com.capibara.security;
+
+import com.capibara.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en proceso de cuentas de usuario por email
+ * Evita repetir findByEmail (+ join de roles) en login, carga de UserDetails y /me.
+ * Acotada por tamaño y TTL; UserService la invalida en cada escritura.
+ * Métricas expuestas en /actuator/metrics/cache.* con cache=users
+ */
+@Component
+public class UserAccountCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserAccount> cache;
+
+    public UserAccountCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${users.cache.max-size:10000}") long maxSize,
+            @Value("${users.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Buscar la cuenta por email (los emails inexistentes no se cachean)
+     */
+    public Optional<UserAccount> findByEmail(String email) {
+        return Optional.ofNullable(cache.get(email, key ->
+                userRepository.findByEmail(key)
+                        .map(UserAccount::from)
+                        .orElse(null)));
+    }
+
+    /**
+     * Invalidar la entrada ahora y de nuevo al confirmar la transacción,
+     * para que una lectura concurrente no deje en caché datos previos al commit
+     */
+    public void invalidate(String email) {
+        cache.invalidate(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+}
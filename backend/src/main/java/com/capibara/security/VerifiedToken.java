@@ -0,0 +1,25 @@
+package com.capibara.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resultado inmutable de verificar un token JWT
+ * Se construye una sola vez por token (firma + claims ya validados)
+ */
+@Value
+public class VerifiedToken {
+
+    String tokenId;
+    Long userId;
+    String subject;
+    List<String> roles;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
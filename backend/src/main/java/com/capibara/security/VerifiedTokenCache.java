@@ -0,0 +1,99 @@
+package com.capibara.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché acotada de tokens JWT ya verificados
+ * La clave es el SHA-256 del token (no se guarda el token en claro) y cada
+ * entrada expira a más tardar en el "exp" del propio token.
+ * Métricas expuestas en /actuator/metrics/cache.* con cache=jwt.tokens
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    private final JwtVerifier jwtVerifier;
+    private final Cache<String, CachedAuthentication> cache;
+
+    public VerifiedTokenCache(
+            JwtVerifier jwtVerifier,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.max-size:10000}") long maxSize
+    ) {
+        this.jwtVerifier = jwtVerifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.tokens");
+    }
+
+    /**
+     * Obtener la autenticación del token, verificándolo solo si no está en caché
+     * Las excepciones de JJWT se propagan y los tokens inválidos no se cachean
+     */
+    public CachedAuthentication get(String token) {
+        return cache.get(digest(token), key -> build(jwtVerifier.verify(token)));
+    }
+
+    private CachedAuthentication build(VerifiedToken verified) {
+        List<SimpleGrantedAuthority> authorities = verified.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new CachedAuthentication(verified, AuthenticatedUser.from(verified), authorities);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Cada entrada vive hasta el "exp" del token; nunca más
+     */
+    private static class TokenExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            Instant expiresAt = value.getToken().getExpiresAt();
+            if (expiresAt == null) {
+                return 0;
+            }
+            long remainingMillis = expiresAt.toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
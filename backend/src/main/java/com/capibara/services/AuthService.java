@@ -7,6 +7,11 @@ import com.capibara.models.Role;
 import com.capibara.models.User;
 import com.capibara.repositories.UserRepository;
 import com.capibara.security.JwtService;
+import com.capibara.security.PasswordHashingBusyException;
+import com.capibara.security.RoleAuthorities;
+import com.capibara.security.TokenRevocationService;
+import com.capibara.security.UserAccount;
+import com.capibara.security.UserAccountCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,7 +20,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -31,6 +35,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserAccountCache userAccountCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -46,9 +52,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
         // Asignar rol USER por defecto
-        Set<Role> roles = new HashSet<>();
-        roles.add(Role.ROLE_USER);
-        user.setRoles(roles);
+        user.addRole(Role.ROLE_USER);
         user.setActive(true);
 
         // Guardar usuario
@@ -59,12 +63,10 @@ public class AuthService {
                 new org.springframework.security.core.userdetails.User(
                         user.getEmail(),
                         user.getPassword(),
-                        user.getRoles().stream()
-                                .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority(role.name()))
-                                .collect(Collectors.toList())
+                        RoleAuthorities.of(user.getRoles())
                 );
 
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(user.getId(), userDetails);
 
         // Crear respuesta
         Set<String> roleNames = user.getRoles().stream()
@@ -80,7 +82,9 @@ public class AuthService {
         );
     }
 
-    @Transactional
+    /**
+     * Sin @Transactional: no se retiene una conexión JDBC mientras corre BCrypt
+     */
     public AuthResponse login(LoginRequest request) {
         // Autenticar usuario
         Authentication authentication = authenticationManager.authenticate(
@@ -90,20 +94,23 @@ public class AuthService {
                 )
         );
 
-        // Obtener usuario
-        User user = userRepository.findByEmail(request.getEmail())
+        // Obtener usuario (ya cargado en caché por CustomUserDetailsService)
+        UserAccount user = userAccountCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
         // Verificar si está activo
-        if (!user.getActive()) {
+        if (!user.isActive()) {
             throw new RuntimeException("Usuario desactivado");
         }
 
+        // Regenerar el hash si fue creado con un costo BCrypt menor al actual
+        rehashIfNeeded(user, request.getPassword());
+
         // Generar token JWT
         org.springframework.security.core.userdetails.UserDetails userDetails =
                 (org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal();
 
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(user.getId(), userDetails);
 
         // Crear respuesta
         Set<String> roleNames = user.getRoles().stream()
@@ -118,4 +125,31 @@ public class AuthService {
                 token
         );
     }
+
+    /**
+     * Cerrar sesión: revoca el token presentado (por su jti)
+     */
+    public void logout(String token) {
+        tokenRevocationService.revokeToken(jwtService.verify(token));
+    }
+
+    /**
+     * La contraseña en claro solo está disponible durante el login:
+     * se aprovecha para subir el hash al costo calibrado de este despliegue (nunca bajarlo)
+     */
+    private void rehashIfNeeded(UserAccount account, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(account.getPassword())) {
+            return;
+        }
+        try {
+            String rehashed = passwordEncoder.encode(rawPassword);
+            userRepository.findById(account.getId()).ifPresent(user -> {
+                user.setPassword(rehashed);
+                userRepository.save(user);
+            });
+            userAccountCache.invalidate(account.getEmail());
+        } catch (PasswordHashingBusyException e) {
+            // Pool saturado: se reintenta en el próximo login
+        }
+    }
 }
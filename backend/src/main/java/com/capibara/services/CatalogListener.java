@@ -0,0 +1,18 @@
+package com.capibara.services;
+
+import java.util.Set;
+
+/**
+ * Estructura derivada del catálogo (índices de búsqueda, sugerencias, ...)
+ * CatalogService la notifica después de publicar cada foto nueva, en orden y
+ * de a una notificación a la vez.
+ */
+public interface CatalogListener {
+
+    /**
+     * @param snapshot   foto recién publicada
+     * @param changedIds productos creados, modificados o eliminados;
+     *                   null si la foto se cargó completa desde la base de datos
+     */
+    void onCatalogChanged(CatalogSnapshot snapshot, Set<Long> changedIds);
+}
@@ -0,0 +1,28 @@
+package com.capibara.services;
+
+/**
+ * Parámetros de una página del catálogo (por número de página o por cursor)
+ * Si viene cursor, se ignora page
+ */
+public record CatalogPageRequest(ProductSort sort, int page, int size, String cursor) {
+
+    public static final int MAX_SIZE = 100;
+
+    public CatalogPageRequest {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new RuntimeException("El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+        }
+        if (page < 0) {
+            throw new RuntimeException("El número de página no puede ser negativo");
+        }
+    }
+
+    public static CatalogPageRequest of(String sort, int page, int size, String cursor) {
+        return new CatalogPageRequest(ProductSort.fromKey(sort), page, size,
+                cursor == null || cursor.isBlank() ? null : cursor);
+    }
+
+    public boolean hasCursor() {
+        return cursor != null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.capibara.services;
+
+import com.capibara.dto.PageResponse;
+import com.capibara.models.Product;
+import com.capibara.repositories.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Catálogo en memoria para las lecturas de productos
+ * Las lecturas usan la foto actual (CatalogSnapshot) sin locks ni base de datos;
+ * las escrituras de ProductService registran sus cambios y se aplican en una
+ * foto nueva solo cuando la transacción hace commit (una por transacción).
+ * Cada foto nueva se notifica a los CatalogListener (índices derivados).
+ * El catálogo se carga al terminar el arranque (después de DataLoader, que
+ * escribe directo en el repositorio); una lectura anterior lo carga antes.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    private final ProductRepository productRepository;
+    private final ObjectProvider<CatalogListener> listeners;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private volatile CatalogSnapshot snapshot;
+    private long lastVersion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+        snapshot();
+    }
+
+    /**
+     * Después de escrituras JDBC masivas (fuera de Hibernate): invalidar la caché
+     * L2 de productos y sus consultas, y recargar la foto completa una sola vez
+     */
+    public void refresh() {
+        evict(null);
+        reload();
+        snapshot();
+    }
+
+    /**
+     * Foto actual del catálogo (inmutable)
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    public Product getProductById(Long id) {
+        return snapshot().findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+    }
+
+    /**
+     * Registrar un producto creado o modificado
+     */
+    public void productSaved(Product product) {
+        register(product.getId(), product);
+    }
+
+    /**
+     * Registrar productos modificados con SQL directo (fuera de Hibernate)
+     * Al hacer commit se invalidan sus entradas en la caché L2 y se aplican a
+     * la foto junto con el resto de cambios de la transacción (una sola foto nueva)
+     */
+    public void productsUpdatedInBulk(Collection<Product> products) {
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        products.forEach(this::productSaved);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(ids);
+            }
+        });
+    }
+
+    /**
+     * Registrar un producto eliminado
+     */
+    public void productDeleted(Long id) {
+        register(id, null);
+    }
+
+    /**
+     * Descartar la foto actual; la siguiente lectura recarga desde la base de datos
+     */
+    public synchronized void reload() {
+        snapshot = null;
+    }
+
+    /**
+     * Página de un listado ya ordenado: por cursor es una búsqueda binaria sobre
+     * la clave (keyset) y por número de página un desplazamiento directo
+     * @param view cómo se entregan los items (ProductSummary o campos pedidos)
+     */
+    public PageResponse<?> page(List<Product> products, CatalogPageRequest request,
+                                Function<List<Product>, ? extends List<?>> view) {
+        ProductSort sort = request.sort();
+        int from;
+        if (request.hasCursor()) {
+            int index = Collections.binarySearch(products, sort.decodeCursor(request.cursor()), sort.getComparator());
+            from = index >= 0 ? index + 1 : -index - 1;
+        } else {
+            from = (int) Math.min((long) request.page() * request.size(), products.size());
+        }
+
+        int to = Math.min(from + request.size(), products.size());
+        List<Product> items = products.subList(from, to);
+        boolean hasNext = to < products.size();
+
+        return new PageResponse<>(
+                view.apply(items),
+                request.hasCursor() ? null : request.page(),
+                request.size(),
+                products.size(),
+                hasNext,
+                hasNext ? sort.encodeCursor(items.get(items.size() - 1)) : null
+        );
+    }
+
+    /**
+     * Invalidar la caché L2 de productos (ids null = todos) y las consultas cacheadas
+     */
+    private void evict(Collection<Long> ids) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (ids == null) {
+            cache.evictEntityData(Product.class);
+        } else {
+            ids.forEach(id -> cache.evictEntityData(Product.class, id));
+        }
+        cache.evictQueryRegion(ProductRepository.QUERY_CACHE_REGION);
+    }
+
+    private void register(Long id, Product product) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Collections.singletonMap(id, product));
+            return;
+        }
+
+        // Un solo registro de cambios por transacción; el último estado de cada producto gana
+        @SuppressWarnings("unchecked")
+        Map<Long, Product> pending = (Map<Long, Product>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Product> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // Las entidades ya tienen su estado final (incluido updatedAt del flush)
+                    apply(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogService.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.put(id, product);
+    }
+
+    private synchronized void apply(Map<Long, Product> changes) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            // Aún no cargado: la primera lectura verá los cambios en la base de datos
+            return;
+        }
+        CatalogSnapshot next = current.apply(nextVersion(), changes);
+        notifyListeners(next, Set.copyOf(changes.keySet()));
+        snapshot = next;
+    }
+
+    private synchronized CatalogSnapshot load() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            current = CatalogSnapshot.of(nextVersion(), productRepository.findAll());
+            notifyListeners(current, null);
+            snapshot = current;
+            logger.info("✓ Catálogo cargado: {} productos (versión {})", current.size(), current.getVersion());
+        }
+        return current;
+    }
+
+    /**
+     * Se llama con el lock tomado: los listeners reciben las fotos en orden
+     * Se notifica antes de publicar la foto, así un índice derivado nunca queda
+     * atrás de la versión que ve un lector (la usada en los ETag)
+     */
+    private void notifyListeners(CatalogSnapshot current, Set<Long> changedIds) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onCatalogChanged(current, changedIds);
+            } catch (RuntimeException e) {
+                logger.error("✗ Error actualizando {} (versión {}): {}",
+                        listener.getClass().getSimpleName(), current.getVersion(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Versión monótona; basada en el reloj para que no retroceda al reiniciar
+     */
+    private long nextVersion() {
+        lastVersion = Math.max(lastVersion + 1, System.currentTimeMillis());
+        return lastVersion;
+    }
+}
@@ -0,0 +1,235 @@
+package com.capibara.services;
+
+import com.capibara.dto.ProductSummary;
+import com.capibara.models.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Foto inmutable y versionada del catálogo de productos
+ * Contiene copias desacopladas de Hibernate (nunca entidades gestionadas) e
+ * índices precalculados por id, categoría y disponibilidad (cada listado en
+ * los órdenes de ProductSort), más la proyección ProductSummary de cada
+ * producto para los listados. Se reemplaza completa (copy-on-write): los
+ * lectores nunca ven un estado intermedio.
+ */
+public final class CatalogSnapshot {
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, List.of());
+
+    private final long version;
+    private final Listing all;
+    private final Map<Long, Product> byId;
+    private final Map<Long, ProductSummary> summaries;
+    private final Listing active;
+    private final Listing available;
+    private final Map<String, Listing> activeByCategory;
+
+    private CatalogSnapshot(long version, Collection<Product> products) {
+        this.version = version;
+
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(ProductSort.ID.getComparator());
+
+        Map<Long, Product> ids = new LinkedHashMap<>();
+        Map<Long, ProductSummary> summaryById = new LinkedHashMap<>();
+        List<Product> activeProducts = new ArrayList<>();
+        List<Product> availableProducts = new ArrayList<>();
+        Map<String, List<Product>> categories = new TreeMap<>();
+
+        for (Product product : sorted) {
+            ids.put(product.getId(), product);
+            summaryById.put(product.getId(), ProductSummary.of(product));
+            if (Boolean.TRUE.equals(product.getActive())) {
+                activeProducts.add(product);
+                if (product.getStock() != null && product.getStock() > 0) {
+                    availableProducts.add(product);
+                }
+                if (product.getCategory() != null) {
+                    categories.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
+                }
+            }
+        }
+        Map<String, Listing> categoryListings = new TreeMap<>();
+        categories.forEach((category, list) -> categoryListings.put(category, Listing.of(list, summaryById)));
+
+        this.all = Listing.of(sorted, summaryById);
+        this.byId = Collections.unmodifiableMap(ids);
+        this.summaries = Collections.unmodifiableMap(summaryById);
+        this.active = Listing.of(activeProducts, summaryById);
+        this.available = Listing.of(availableProducts, summaryById);
+        this.activeByCategory = Collections.unmodifiableMap(categoryListings);
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Foto completa a partir de entidades (se copian)
+     */
+    public static CatalogSnapshot of(long version, Collection<Product> products) {
+        return new CatalogSnapshot(version, products.stream().map(CatalogSnapshot::detach).toList());
+    }
+
+    /**
+     * Nueva foto aplicando cambios: id -> producto (null = eliminado)
+     */
+    public CatalogSnapshot apply(long newVersion, Map<Long, Product> changes) {
+        Map<Long, Product> products = new LinkedHashMap<>(byId);
+        changes.forEach((id, product) -> {
+            if (product == null) {
+                products.remove(id);
+            } else {
+                products.put(id, detach(product));
+            }
+        });
+        return new CatalogSnapshot(newVersion, products.values());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Product> getAll() {
+        return all.byId();
+    }
+
+    public List<Product> getActive() {
+        return active.byId();
+    }
+
+    public List<Product> getAvailable() {
+        return available.byId();
+    }
+
+    public List<ProductSummary> getAllSummaries() {
+        return all.summaries();
+    }
+
+    public List<ProductSummary> getActiveSummaries() {
+        return active.summaries();
+    }
+
+    public List<ProductSummary> getAvailableSummaries() {
+        return available.summaries();
+    }
+
+    public List<ProductSummary> getActiveSummariesByCategory(String category) {
+        Listing listing = activeByCategory.get(category);
+        return listing != null ? listing.summaries() : List.of();
+    }
+
+    /**
+     * Proyecciones ya calculadas de los productos dados (mismo orden)
+     * Un producto que no está en esta foto (índice derivado más nuevo) se proyecta al vuelo
+     */
+    public List<ProductSummary> summarize(List<Product> products) {
+        return products.stream()
+                .map(product -> {
+                    ProductSummary summary = summaries.get(product.getId());
+                    return summary != null ? summary : ProductSummary.of(product);
+                })
+                .toList();
+    }
+
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Productos con los ids dados, en el orden pedido (un id repetido se entrega una vez)
+     * Los ids que no están en la foto se agregan a missing
+     */
+    public List<Product> findAllById(Collection<Long> ids, List<Long> missing) {
+        List<Product> found = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product product = byId.get(id);
+            if (product != null) {
+                found.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return found;
+    }
+
+    public List<Product> getActiveByCategory(String category) {
+        return getActiveByCategory(category, ProductSort.ID);
+    }
+
+    /**
+     * Categorías con al menos un producto activo (orden alfabético)
+     */
+    public Set<String> getCategories() {
+        return activeByCategory.keySet();
+    }
+
+    public List<Product> getAll(ProductSort sort) {
+        return all.get(sort);
+    }
+
+    public List<Product> getActive(ProductSort sort) {
+        return active.get(sort);
+    }
+
+    public List<Product> getAvailable(ProductSort sort) {
+        return available.get(sort);
+    }
+
+    public List<Product> getActiveByCategory(String category, ProductSort sort) {
+        Listing listing = activeByCategory.get(category);
+        return listing != null ? listing.get(sort) : List.of();
+    }
+
+    public int size() {
+        return all.byId().size();
+    }
+
+    /**
+     * Un listado en cada orden estable (las listas comparten los mismos productos)
+     * y sus proyecciones en orden por id, que es lo que sirven los listados completos
+     */
+    private record Listing(List<Product> byId, List<Product> byCreatedAt, List<ProductSummary> summaries) {
+
+        static Listing of(List<Product> sortedById, Map<Long, ProductSummary> summaryById) {
+            List<Product> byCreatedAt = new ArrayList<>(sortedById);
+            byCreatedAt.sort(ProductSort.CREATED_AT.getComparator());
+            List<ProductSummary> summaries = sortedById.stream()
+                    .map(product -> summaryById.get(product.getId()))
+                    .toList();
+            return new Listing(List.copyOf(sortedById), List.copyOf(byCreatedAt), summaries);
+        }
+
+        List<Product> get(ProductSort sort) {
+            return sort == ProductSort.CREATED_AT ? byCreatedAt : byId;
+        }
+    }
+
+    /**
+     * Copia simple del producto, sin proxies ni sesión de Hibernate
+     */
+    private static Product detach(Product source) {
+        return new Product(
+                source.getId(),
+                source.getName(),
+                source.getDescription(),
+                source.getPrice(),
+                source.getStock(),
+                source.getCategory(),
+                source.getImageUrl(),
+                source.getActive(),
+                source.getCreatedAt(),
+                source.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,67 @@
+package com.capibara.services;
+
+import com.capibara.dto.ProductChange;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición en el flujo de cambios del catálogo, ordenado por (instante, tipo, id)
+ * Dentro del mismo instante los UPSERT van antes que los DELETE; id es el id del
+ * producto (UPSERT) o de la lápida (DELETE). Opaco para el cliente, como los
+ * cursores de ProductSort.
+ */
+record ChangeCursor(LocalDateTime at, ProductChange.Type type, long id) {
+
+    /**
+     * Posición inicial: antes de cualquier cambio
+     */
+    static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), ProductChange.Type.UPSERT, 0);
+
+    /**
+     * Posición después de todos los cambios hasta el instante dado (inclusive)
+     */
+    static ChangeCursor endOf(LocalDateTime at) {
+        return new ChangeCursor(at, ProductChange.Type.DELETE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Último id de productos ya entregado en el instante at
+     */
+    long productIdAfter() {
+        return type == ProductChange.Type.UPSERT ? id : Long.MAX_VALUE;
+    }
+
+    /**
+     * Último id de lápidas ya entregado en el instante at
+     */
+    long tombstoneIdAfter() {
+        return type == ProductChange.Type.DELETE ? id : 0;
+    }
+
+    String encode() {
+        String raw = at + "|" + type + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new ChangeCursor(
+                    LocalDateTime.parse(parts[0]),
+                    ProductChange.Type.valueOf(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Cursor de cambios inválido");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.capibara.services;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura mínima de CSV (RFC 4180)
+ * Campos separados por coma, entre comillas dobles si contienen coma, comillas
+ * o saltos de línea (las comillas internas se duplican). Se lee un registro a
+ * la vez, sin cargar el archivo completo: un registro nunca supera
+ * MAX_RECORD_LENGTH caracteres, así que la memoria usada no depende del archivo.
+ */
+final class CsvFormat {
+
+    /**
+     * Largo máximo de un registro: la columna más larga (description) admite
+     * 1000 caracteres, con margen para comillas duplicadas y las demás columnas
+     */
+    static final int MAX_RECORD_LENGTH = 4096;
+
+    private CsvFormat() {
+    }
+
+    /**
+     * Registro mal formado (comillas sin cerrar o demasiado largo)
+     * El lector ya quedó al inicio de la línea siguiente a donde empezó el
+     * registro, así que se puede seguir leyendo
+     */
+    static final class MalformedRecordException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Siguiente registro del lector, o null al final
+     * Un campo entre comillas puede abarcar varias líneas. LineNumberReader
+     * entrega cualquier fin de línea (\n, \r\n o \r) como '\n'.
+     */
+    static List<String> readRecord(LineNumberReader reader) throws IOException {
+        // Si el registro resulta mal formado se vuelve aquí para saltar solo su primera línea
+        reader.mark(MAX_RECORD_LENGTH + 1);
+
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+
+        while (c >= 0 && (quoted || c != '\n')) {
+            if (++length > MAX_RECORD_LENGTH) {
+                if (quoted) {
+                    skipFirstLine(reader);
+                    throw new MalformedRecordException("Comillas sin cerrar (el registro supera "
+                            + MAX_RECORD_LENGTH + " caracteres)");
+                }
+                // Sin comillas abiertas el registro termina en esta misma línea
+                skipLine(reader);
+                throw new MalformedRecordException("Registro demasiado largo (máximo "
+                        + MAX_RECORD_LENGTH + " caracteres)");
+            }
+
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                        length++;
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+
+        if (quoted) {
+            skipFirstLine(reader);
+            throw new MalformedRecordException("Comillas sin cerrar al final del archivo");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Siguiente línea del lector (sin el fin de línea), o null al final
+     * Mismo tope que un registro CSV; también se usa para NDJSON (un objeto por línea)
+     * @throws MalformedRecordException si la línea supera MAX_RECORD_LENGTH (el
+     *         lector queda al inicio de la línea siguiente)
+     */
+    static String readLine(LineNumberReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        StringBuilder line = new StringBuilder();
+        while (c >= 0 && c != '\n') {
+            if (line.length() == MAX_RECORD_LENGTH) {
+                skipLine(reader);
+                throw new MalformedRecordException("Registro demasiado largo (máximo "
+                        + MAX_RECORD_LENGTH + " caracteres)");
+            }
+            line.append((char) c);
+            c = reader.read();
+        }
+        return line.toString();
+    }
+
+    /**
+     * Valor listo para escribir en un campo CSV
+     */
+    static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Volver al inicio del registro y descartar solo su primera línea:
+     * las siguientes se leen como registros nuevos
+     */
+    private static void skipFirstLine(LineNumberReader reader) throws IOException {
+        reader.reset();
+        skipLine(reader);
+    }
+
+    private static void skipLine(LineNumberReader reader) throws IOException {
+        int c;
+        do {
+            c = reader.read();
+        } while (c >= 0 && c != '\n');
+    }
+}
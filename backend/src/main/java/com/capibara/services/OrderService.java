@@ -1,14 +1,24 @@
 package com.capibara.services;
 
 import com.capibara.dto.CreateOrderRequest;
+import com.capibara.dto.FieldSet;
+import com.capibara.dto.OrderListVersion;
+import com.capibara.dto.OrderVersion;
 import com.capibara.models.*;
+import com.capibara.repositories.FieldProjectionRepository;
 import com.capibara.repositories.OrderRepository;
+import com.capibara.repositories.UserRepository;
+import com.capibara.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para gestión de órdenes
@@ -21,7 +31,8 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductService productService;
-    private final UserService userService;
+    private final UserRepository userRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
@@ -34,6 +45,46 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + id));
     }
 
+    /**
+     * Obtener una orden verificando que pertenezca al usuario (o que sea ADMIN)
+     * La verificación es en memoria: el principal ya trae id y roles
+     */
+    @Transactional(readOnly = true)
+    public Order getOrderForUser(Long id, AuthenticatedUser principal) {
+        Order order = getOrderById(id);
+        checkOwnership(order, principal, "No tienes permiso para ver esta orden");
+        return order;
+    }
+
+    /**
+     * Versión de una orden para GET condicional, verificando permisos
+     * Solo consulta dueño y fechas: la orden completa se carga si cambió
+     */
+    @Transactional(readOnly = true)
+    public OrderVersion getOrderVersionForUser(Long id, AuthenticatedUser principal) {
+        OrderVersion version = orderRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + id));
+        if (!principal.owns(version.ownerId()) && !principal.isAdmin()) {
+            throw new AccessDeniedException("No tienes permiso para ver esta orden");
+        }
+        return version;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderListVersion getAllOrdersVersion() {
+        return orderRepository.findListVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public OrderListVersion getOrdersVersionByUserId(Long userId) {
+        return orderRepository.findListVersionByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderListVersion getOrdersVersionByStatus(OrderStatus status) {
+        return orderRepository.findListVersionByStatus(status);
+    }
+
     @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
         return orderRepository.findByUserId(userId);
@@ -44,9 +95,42 @@ public class OrderService {
         return orderRepository.findByStatus(status);
     }
 
+    /**
+     * Variantes con ?fields=: solo se leen las columnas pedidas (sin items)
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllOrders(FieldSet.Selection<Order> fields) {
+        return fieldProjectionRepository.findFields(Order.class, fields, null,
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByUserId(Long userId, FieldSet.Selection<Order> fields) {
+        Specification<Order> byUser = (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+        return fieldProjectionRepository.findFields(Order.class, fields, byUser, Sort.unsorted());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getOrdersByStatus(OrderStatus status, FieldSet.Selection<Order> fields) {
+        Specification<Order> byStatus = (root, query, cb) -> cb.equal(root.get("status"), status);
+        return fieldProjectionRepository.findFields(Order.class, fields, byStatus, Sort.unsorted());
+    }
+
+    /**
+     * Campos de una orden (los permisos se verifican antes con getOrderVersionForUser)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOrderFields(Long id, FieldSet.Selection<Order> fields) {
+        Specification<Order> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return fieldProjectionRepository.findFields(Order.class, fields, byId, Sort.unsorted()).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Orden no encontrada con ID: " + id));
+    }
+
     @Transactional
     public Order createOrder(Long userId, CreateOrderRequest request) {
-        User user = userService.getUserById(userId);
+        // Solo hace falta la FK: el id viene del token ya verificado, sin consultar el usuario
+        User user = userRepository.getReferenceById(userId);
 
         Order order = new Order();
         order.setUser(user);
@@ -98,8 +182,9 @@ public class OrderService {
     }
 
     @Transactional
-    public void cancelOrder(Long orderId) {
+    public void cancelOrder(Long orderId, AuthenticatedUser principal) {
         Order order = getOrderById(orderId);
+        checkOwnership(order, principal, "No tienes permiso para cancelar esta orden");
 
         // Restaurar stock
         for (OrderItem item : order.getItems()) {
@@ -128,4 +213,11 @@ public class OrderService {
 
         orderRepository.delete(order);
     }
+
+    private void checkOwnership(Order order, AuthenticatedUser principal, String message) {
+        // getId() sobre el proxy LAZY de User no dispara una consulta
+        if (!principal.owns(order.getUser().getId()) && !principal.isAdmin()) {
+            throw new AccessDeniedException(message);
+        }
+    }
 }
@@ -0,0 +1,684 @@
+package com.capibara.services;
+
+import com.capibara.dto.ImportResult;
+import com.capibara.dto.StockAdjustmentRequest;
+import com.capibara.dto.StockAdjustmentResult;
+import com.capibara.models.Product;
+import com.capibara.repositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Operaciones masivas sobre productos: importación/exportación (CSV y NDJSON)
+ * y ajuste de stock
+ * Import y export trabajan en streaming con memoria constante: la importación
+ * lee registro a registro y escribe lotes JDBC (catalog.import.batch-size), cada
+ * lote en su propia transacción; la exportación escribe cada fila del ResultSet
+ * directo a la respuesta. Las escrituras no pasan por Hibernate: al terminar se
+ * invalida la caché L2 y se actualiza el catálogo en memoria una sola vez.
+ */
+@Service
+public class ProductBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkService.class);
+
+    /**
+     * Columnas en el orden de exportación; createdAt y updatedAt se ignoran al importar
+     */
+    private static final List<String> COLUMNS = List.of(
+            "id", "name", "description", "price", "stock", "category", "imageUrl", "active", "createdAt", "updatedAt");
+
+    private static final String INSERT_SQL = "INSERT INTO products " +
+            "(name, description, price, stock, category, image_url, active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE products SET " +
+            "name = ?, description = ?, price = ?, stock = ?, category = ?, image_url = ?, " +
+            "active = COALESCE(?, active), updated_at = ? WHERE id = ?";
+    // SET: stock * 0 + cantidad; DELTA: stock * 1 + cantidad (sin quedar negativo)
+    private static final String STOCK_SQL = "UPDATE products SET stock = stock * ? + ?, updated_at = ? " +
+            "WHERE id = ? AND stock * ? + ? >= 0";
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final String EXPORT_SQL = "SELECT id, name, description, price, stock, category, image_url, " +
+            "active, created_at, updated_at FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogService catalogService;
+    private final ProductRepository productRepository;
+    private final ProductChangeWatermark changeWatermark;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int fetchSize;
+
+    public ProductBulkService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            CatalogService catalogService,
+            ProductRepository productRepository,
+            ProductChangeWatermark changeWatermark,
+            @Value("${catalog.import.batch-size:500}") int batchSize,
+            @Value("${catalog.import.max-errors:100}") int maxErrors,
+            @Value("${catalog.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.catalogService = catalogService;
+        this.productRepository = productRepository;
+        this.changeWatermark = changeWatermark;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = maxErrors;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Formatos soportados y su Content-Type
+     */
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format fromKey(String key) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(key)) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Formato no soportado: " + key + " (csv o ndjson)");
+        }
+
+        public static Format fromMediaType(String contentType) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (Format format : values()) {
+                if (type.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Content-Type no soportado: " + contentType);
+        }
+    }
+
+    /**
+     * Importar productos: filas con id actualizan ese producto, filas sin id se insertan
+     * Las filas inválidas se informan en el resultado y no detienen la importación
+     */
+    public ImportResult importProducts(InputStream input, Format format) throws IOException {
+        Batch batch = new Batch(new ImportResult());
+        LineNumberReader reader = new LineNumberReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, batch);
+            } else {
+                readNdjson(reader, batch);
+            }
+        } catch (IOException e) {
+            // Archivo truncado o mal formado: lo ya leído se guarda igual
+            batch.error(reader.getLineNumber(), e.getMessage());
+        }
+        flush(batch);
+
+        ImportResult result = batch.result;
+        if (result.getInserted() + result.getUpdated() > 0) {
+            catalogService.refresh();
+        }
+        logger.info("✓ Importación {}: {} filas, {} insertadas, {} actualizadas, {} con error",
+                format, result.getProcessed(), result.getInserted(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Escribir todos los productos (ordenados por id) sin cargarlos en memoria
+     */
+    public void exportProducts(OutputStream output, Format format) throws IOException {
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            streamProducts(rs -> {
+                for (int i = 1; i <= COLUMNS.size(); i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    writer.write(CsvFormat.escape(exportValue(rs, i)));
+                }
+                writer.write('\n');
+            });
+            writer.flush();
+        } else {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            streamProducts(rs -> {
+                generator.writeStartObject();
+                for (int i = 1; i <= COLUMNS.size(); i++) {
+                    Object value = exportValue(rs, i);
+                    if (value != null) {
+                        generator.writeFieldName(COLUMNS.get(i - 1));
+                        writeJsonValue(generator, value);
+                    }
+                }
+                generator.writeEndObject();
+            });
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+
+    /**
+     * Ajustar el stock de muchos productos en una sola transacción
+     * Un único UPDATE preparado en lotes JDBC (los items se aplican en orden);
+     * los ids desconocidos y los DELTA que dejarían stock negativo se informan
+     * y no detienen el resto. El catálogo se actualiza una vez al hacer commit.
+     */
+    public StockAdjustmentResult adjustStock(List<StockAdjustmentRequest.Item> items) {
+        for (StockAdjustmentRequest.Item item : items) {
+            if (item.getMode() == StockAdjustmentRequest.Mode.SET && item.getQuantity() < 0) {
+                throw new RuntimeException("El stock no puede ser negativo (producto " + item.getProductId() + ")");
+            }
+        }
+
+        return transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(changeWatermark.stampForCurrentTransaction());
+            int[][] counts = jdbcTemplate.batchUpdate(STOCK_SQL, items, batchSize, (ps, item) -> {
+                int keep = item.getMode() == StockAdjustmentRequest.Mode.DELTA ? 1 : 0;
+                ps.setInt(1, keep);
+                ps.setInt(2, item.getQuantity());
+                ps.setTimestamp(3, now);
+                ps.setLong(4, item.getProductId());
+                ps.setInt(5, keep);
+                ps.setInt(6, item.getQuantity());
+            });
+
+            Set<Long> applied = new HashSet<>();
+            Set<Long> notApplied = new LinkedHashSet<>();
+            int updated = 0;
+            int index = 0;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    Long id = items.get(index++).getProductId();
+                    if (count == 0) {
+                        notApplied.add(id);
+                    } else {
+                        applied.add(id);
+                        updated++;
+                    }
+                }
+            }
+
+            // Releer los productos afectados (la caché L2 aún tiene el stock anterior)
+            Set<Long> requested = new LinkedHashSet<>();
+            items.forEach(item -> requested.add(item.getProductId()));
+            List<Long> ids = List.copyOf(requested);
+            Set<Long> existing = new HashSet<>();
+            List<Product> changed = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+                for (Product product : productRepository.findAllByIdBypassingCache(chunk)) {
+                    existing.add(product.getId());
+                    if (applied.contains(product.getId())) {
+                        changed.add(product);
+                    }
+                }
+            }
+            catalogService.productsUpdatedInBulk(changed);
+
+            List<Long> unknownIds = ids.stream().filter(id -> !existing.contains(id)).toList();
+            List<Long> insufficientStockIds = notApplied.stream().filter(existing::contains).toList();
+            logger.info("✓ Ajuste de stock: {} aplicados, {} ids desconocidos, {} sin stock suficiente",
+                    updated, unknownIds.size(), insufficientStockIds.size());
+            return new StockAdjustmentResult(updated, unknownIds, insufficientStockIds);
+        });
+    }
+
+    // ═══════════════════════════════════════════════════
+    // Lectura de filas
+    // ═══════════════════════════════════════════════════
+
+    private void readCsv(LineNumberReader reader, Batch batch) throws IOException {
+        List<String> header = CsvFormat.readRecord(reader);
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty()) {
+            // BOM de Excel en la primera columna
+            header.set(0, header.get(0).replace("\uFEFF", ""));
+        }
+
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = canonicalColumn(header.get(i).trim());
+            if (column == null) {
+                throw new RuntimeException("Columna desconocida en el CSV: " + header.get(i)
+                        + ". Columnas: " + String.join(", ", COLUMNS));
+            }
+            positions.put(column, i);
+        }
+        for (String required : List.of("name", "price", "stock")) {
+            if (!positions.containsKey(required)) {
+                throw new RuntimeException("Falta la columna obligatoria en el CSV: " + required);
+            }
+        }
+
+        while (true) {
+            long line = reader.getLineNumber() + 1;
+            List<String> record;
+            try {
+                record = CsvFormat.readRecord(reader);
+            } catch (CsvFormat.MalformedRecordException e) {
+                // Se informa donde empezó el registro y se sigue en la línea siguiente
+                batch.result.setProcessed(batch.result.getProcessed() + 1);
+                batch.error(line, e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            batch.result.setProcessed(batch.result.getProcessed() + 1);
+            if (record.size() != header.size()) {
+                batch.error(line, "Se esperaban " + header.size() + " columnas y hay " + record.size());
+                continue;
+            }
+            add(batch, line, column -> {
+                Integer position = positions.get(column);
+                String value = position != null ? record.get(position).trim() : null;
+                return value == null || value.isEmpty() ? null : value;
+            });
+        }
+    }
+
+    private void readNdjson(LineNumberReader reader, Batch batch) throws IOException {
+        while (true) {
+            long line = reader.getLineNumber() + 1;
+            String text;
+            try {
+                text = CsvFormat.readLine(reader);
+            } catch (CsvFormat.MalformedRecordException e) {
+                batch.result.setProcessed(batch.result.getProcessed() + 1);
+                batch.error(line, e.getMessage());
+                continue;
+            }
+            if (text == null) {
+                break;
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            batch.result.setProcessed(batch.result.getProcessed() + 1);
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                batch.error(line, "JSON inválido: " + e.getOriginalMessage());
+                continue;
+            }
+            if (node == null || !node.isObject()) {
+                batch.error(line, "Se esperaba un objeto JSON por línea");
+                continue;
+            }
+
+            String unknown = null;
+            for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                if (!COLUMNS.contains(name)) {
+                    unknown = name;
+                    break;
+                }
+            }
+            if (unknown != null) {
+                batch.error(line, "Campo desconocido: " + unknown);
+                continue;
+            }
+
+            add(batch, line, column -> {
+                JsonNode value = node.get(column);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+    }
+
+    private static String canonicalColumn(String name) {
+        for (String column : COLUMNS) {
+            if (column.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validar una fila (mismas reglas que la entidad Product) y agregarla al lote
+     */
+    private void add(Batch batch, long line, Function<String, String> values) {
+        Row row;
+        try {
+            row = new Row(
+                    line,
+                    parseId(values.apply("id")),
+                    text(values.apply("name"), "name", 200, true),
+                    text(values.apply("description"), "description", 1000, false),
+                    parsePrice(values.apply("price")),
+                    parseStock(values.apply("stock")),
+                    text(values.apply("category"), "category", 100, false),
+                    text(values.apply("imageUrl"), "imageUrl", 500, false),
+                    parseActive(values.apply("active"))
+            );
+        } catch (RuntimeException e) {
+            batch.error(line, e.getMessage());
+            return;
+        }
+
+        batch.rows.add(row);
+        if (batch.rows.size() >= batchSize) {
+            flush(batch);
+        }
+    }
+
+    private static Long parseId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("id inválido: " + value);
+        }
+    }
+
+    private static String text(String value, String column, int maxLength, boolean required) {
+        if (value == null || value.isBlank()) {
+            if (required) {
+                throw new RuntimeException("El campo " + column + " es obligatorio");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new RuntimeException("El campo " + column + " supera " + maxLength + " caracteres");
+        }
+        return value;
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null) {
+            throw new RuntimeException("El precio es obligatorio");
+        }
+        BigDecimal price;
+        try {
+            price = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Precio inválido: " + value);
+        }
+        if (price.signum() <= 0) {
+            throw new RuntimeException("El precio debe ser mayor que 0");
+        }
+        // Columna NUMERIC(10, 2)
+        if (price.stripTrailingZeros().scale() > 2 || price.precision() - price.scale() > 8) {
+            throw new RuntimeException("Precio fuera de rango: " + value);
+        }
+        return price;
+    }
+
+    private static Integer parseStock(String value) {
+        if (value == null) {
+            throw new RuntimeException("El stock es obligatorio");
+        }
+        int stock;
+        try {
+            stock = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Stock inválido: " + value);
+        }
+        if (stock < 0) {
+            throw new RuntimeException("El stock no puede ser negativo");
+        }
+        return stock;
+    }
+
+    private static Boolean parseActive(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "si", "sí" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new RuntimeException("Valor de active inválido: " + value);
+        };
+    }
+
+    // ═══════════════════════════════════════════════════
+    // Escritura por lotes
+    // ═══════════════════════════════════════════════════
+
+    private void flush(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        List<Row> rows = List.copyOf(batch.rows);
+        batch.rows.clear();
+
+        try {
+            batch.record(transactionTemplate.execute(status -> write(rows)));
+        } catch (DataAccessException e) {
+            // El lote se deshizo completo: se reintenta fila a fila para saber cuál falla
+            logger.warn("Lote de importación con error, reintentando fila a fila: {}", e.getMessage());
+            for (Row row : rows) {
+                try {
+                    batch.record(transactionTemplate.execute(status -> write(List.of(row))));
+                } catch (DataAccessException rowError) {
+                    batch.error(row.line(), "Error de base de datos: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Un lote: UPDATE para filas con id e INSERT para el resto (dos batchUpdate)
+     */
+    private Written write(List<Row> rows) {
+        Timestamp now = Timestamp.valueOf(changeWatermark.stampForCurrentTransaction());
+        List<Row> updates = rows.stream().filter(row -> row.id() != null).toList();
+        List<Row> inserts = rows.stream().filter(row -> row.id() == null).toList();
+
+        int[][] updateCounts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, batchSize, (ps, row) -> {
+            bindColumns(ps, row);
+            ps.setTimestamp(8, now);
+            ps.setLong(9, row.id());
+        });
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, batchSize, (ps, row) -> {
+            bindColumns(ps, row);
+            if (row.active() == null) {
+                ps.setBoolean(7, true);
+            }
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+
+        List<Row> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : updateCounts) {
+            for (int count : chunk) {
+                Row row = updates.get(index++);
+                if (count == 0) {
+                    missing.add(row);
+                }
+            }
+        }
+        return new Written(inserts.size(), updates.size() - missing.size(), missing);
+    }
+
+    private static void bindColumns(PreparedStatement ps, Row row) throws SQLException {
+        ps.setString(1, row.name());
+        ps.setString(2, row.description());
+        ps.setBigDecimal(3, row.price());
+        ps.setInt(4, row.stock());
+        ps.setString(5, row.category());
+        ps.setString(6, row.imageUrl());
+        ps.setObject(7, row.active());
+    }
+
+    // ═══════════════════════════════════════════════════
+    // Exportación
+    // ═══════════════════════════════════════════════════
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private void streamProducts(RowWriter writer) throws IOException {
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new ExportAbortedException(e);
+                }
+            });
+        } catch (ExportAbortedException e) {
+            // El cliente cortó la descarga
+            throw e.getCause();
+        }
+    }
+
+    private static Object exportValue(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static final class ExportAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ExportAbortedException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════
+    // Estado de una importación
+    // ═══════════════════════════════════════════════════
+
+    private record Row(
+            long line,
+            Long id,
+            String name,
+            String description,
+            BigDecimal price,
+            Integer stock,
+            String category,
+            String imageUrl,
+            Boolean active
+    ) {
+    }
+
+    /**
+     * Resultado de un lote ya confirmado
+     */
+    private record Written(int inserted, int updated, List<Row> missing) {
+    }
+
+    private final class Batch {
+
+        private final ImportResult result;
+        private final List<Row> rows = new ArrayList<>();
+
+        private Batch(ImportResult result) {
+            this.result = result;
+        }
+
+        private void record(Written written) {
+            result.setInserted(result.getInserted() + written.inserted());
+            result.setUpdated(result.getUpdated() + written.updated());
+            for (Row row : written.missing()) {
+                error(row.line(), "Producto no encontrado con ID: " + row.id());
+            }
+        }
+
+        private void error(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new ImportResult.RowError(line, message));
+            }
+        }
+    }
+}
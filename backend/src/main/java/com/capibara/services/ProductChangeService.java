@@ -0,0 +1,116 @@
+package com.capibara.services;
+
+import com.capibara.dto.FieldSet;
+import com.capibara.dto.ProductChange;
+import com.capibara.dto.ProductChangesResponse;
+import com.capibara.models.Product;
+import com.capibara.models.ProductTombstone;
+import com.capibara.repositories.ProductRepository;
+import com.capibara.repositories.ProductTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sincronización incremental del catálogo (/api/products/changes)
+ * Une dos recorridos por índice: productos por (updatedAt, id) y lápidas de
+ * productos eliminados por (deletedAt, id). El costo depende de la cantidad de
+ * cambios desde el cursor, no del tamaño del catálogo.
+ *
+ * updatedAt se asigna antes del commit, así que una transacción lenta puede
+ * hacer visible un cambio con un instante ya entregado; por eso solo se
+ * entregan cambios con más de catalog.changes.settle-ms de antigüedad y nunca
+ * desde el instante de una escritura masiva aún abierta (ProductChangeWatermark).
+ */
+@Service
+public class ProductChangeService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final Comparator<ChangeCursor> ORDER = Comparator
+            .comparing(ChangeCursor::at)
+            .thenComparing(ChangeCursor::type)
+            .thenComparingLong(ChangeCursor::id);
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final ProductChangeWatermark changeWatermark;
+    private final Duration settle;
+
+    public ProductChangeService(
+            ProductRepository productRepository,
+            ProductTombstoneRepository tombstoneRepository,
+            ProductChangeWatermark changeWatermark,
+            @Value("${catalog.changes.settle-ms:2000}") long settleMs
+    ) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeWatermark = changeWatermark;
+        this.settle = Duration.ofMillis(settleMs);
+    }
+
+    /**
+     * Cambios posteriores al cursor since (null = desde el inicio), como máximo limit
+     * @param selection campos del producto a entregar (null = producto completo)
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesResponse getChanges(String since, int limit, FieldSet.Selection<Product> selection) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("El límite debe estar entre 1 y " + MAX_LIMIT);
+        }
+        ChangeCursor from = ChangeCursor.decode(since);
+        LocalDateTime until = changeWatermark.safeUntil(
+                LocalDateTime.now().minus(settle).truncatedTo(ChronoUnit.MICROS));
+
+        // limit + 1 de cada lado: alcanza para armar la tanda y saber si quedan más
+        PageRequest firstPage = PageRequest.of(0, limit + 1);
+        List<Product> products = productRepository.findChangedSince(from.at(), from.productIdAfter(), until, firstPage);
+        List<ProductTombstone> tombstones = tombstoneRepository.findDeletedSince(from.at(), from.tombstoneIdAfter(), until, firstPage);
+
+        List<ProductChange> changes = new ArrayList<>(Math.min(limit, products.size() + tombstones.size()));
+        ChangeCursor last = from;
+        int p = 0;
+        int t = 0;
+        while (changes.size() < limit && (p < products.size() || t < tombstones.size())) {
+            ChangeCursor nextProduct = p < products.size() ? cursorOf(products.get(p)) : null;
+            ChangeCursor nextTombstone = t < tombstones.size() ? cursorOf(tombstones.get(t)) : null;
+
+            if (nextTombstone == null || (nextProduct != null && ORDER.compare(nextProduct, nextTombstone) < 0)) {
+                Product product = products.get(p++);
+                changes.add(new ProductChange(ProductChange.Type.UPSERT, product.getId(), product.getUpdatedAt(),
+                        selection != null ? selection.project(product) : product));
+                last = nextProduct;
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                changes.add(new ProductChange(ProductChange.Type.DELETE, tombstone.getProductId(), tombstone.getDeletedAt(), null));
+                last = nextTombstone;
+            }
+        }
+
+        boolean hasMore = p < products.size() || t < tombstones.size();
+        ChangeCursor next;
+        if (hasMore || from.at().isAfter(until)) {
+            next = last;
+        } else {
+            // Todo lo anterior a until ya se entregó: el cursor avanza aunque no haya cambios
+            next = ChangeCursor.endOf(until);
+        }
+        return new ProductChangesResponse(changes, next.encode(), hasMore);
+    }
+
+    private static ChangeCursor cursorOf(Product product) {
+        return new ChangeCursor(product.getUpdatedAt(), ProductChange.Type.UPSERT, product.getId());
+    }
+
+    private static ChangeCursor cursorOf(ProductTombstone tombstone) {
+        return new ChangeCursor(tombstone.getDeletedAt(), ProductChange.Type.DELETE, tombstone.getId());
+    }
+}
@@ -0,0 +1,65 @@
+package com.capibara.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marca de agua del feed de cambios (/api/products/changes)
+ * Las escrituras masivas por SQL (importación, ajuste de stock) asignan
+ * updated_at al empezar y pueden hacer commit mucho después. Mientras una de
+ * ellas está abierta, el feed no entrega cambios desde su instante en
+ * adelante: así ningún cursor pasa por encima de filas aún sin confirmar.
+ * Las escrituras JPA de un producto asignan updated_at en el flush, justo
+ * antes del commit, y quedan cubiertas por catalog.changes.settle-ms.
+ */
+@Component
+public class ProductChangeWatermark {
+
+    private record Pending(LocalDateTime at, long sequence) {
+    }
+
+    private final ConcurrentSkipListSet<Pending> pending = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Pending::at).thenComparingLong(Pending::sequence));
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Instante para updated_at en la transacción actual; frena el feed hasta que termine
+     * (commit o rollback). Sin transacción activa solo devuelve el instante.
+     */
+    public LocalDateTime stampForCurrentTransaction() {
+        // Misma precisión que la columna: el cursor compara valores exactos
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return now;
+        }
+
+        Pending entry = new Pending(now, sequence.incrementAndGet());
+        pending.add(entry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pending.remove(entry);
+            }
+        });
+        return now;
+    }
+
+    /**
+     * Límite superior seguro para el feed: until, o justo antes de la escritura
+     * masiva abierta más antigua
+     */
+    public LocalDateTime safeUntil(LocalDateTime until) {
+        Pending oldest = pending.isEmpty() ? null : pending.first();
+        if (oldest == null || oldest.at().isAfter(until)) {
+            return until;
+        }
+        return oldest.at().minus(1, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,131 @@
+package com.capibara.services;
+
+import com.capibara.dto.ProductFacets;
+import com.capibara.models.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Conteos de facetas (categoría, disponibilidad y rango de precio) de los
+ * productos activos, mantenidos en forma incremental
+ * Por cada cambio del catálogo se resta la faceta anterior del producto y se
+ * suma la nueva; la respuesta se arma en ese momento, así que una consulta
+ * solo devuelve el objeto ya calculado.
+ */
+@Component
+public class ProductFacetIndex implements CatalogListener {
+
+    private final List<BigDecimal> priceBounds;
+
+    // Solo se modifican dentro de onCatalogChanged (CatalogService notifica de a uno)
+    private final Map<Long, FacetKey> keys = new HashMap<>();
+    private final Map<String, Long> categoryCounts = new TreeMap<>();
+    private final long[] priceCounts;
+    private long available;
+    private long outOfStock;
+
+    private volatile ProductFacets facets;
+
+    public ProductFacetIndex(@Value("${catalog.facets.price-bounds:20000,50000,100000,200000}") List<BigDecimal> priceBounds) {
+        this.priceBounds = priceBounds.stream().sorted().toList();
+        this.priceCounts = new long[this.priceBounds.size() + 1];
+        this.facets = publish();
+    }
+
+    public ProductFacets getFacets() {
+        return facets;
+    }
+
+    @Override
+    public void onCatalogChanged(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        if (changedIds == null) {
+            for (FacetKey key : keys.values()) {
+                count(key, -1);
+            }
+            keys.clear();
+            snapshot.getActive().forEach(this::index);
+        } else {
+            for (Long id : changedIds) {
+                FacetKey previous = keys.remove(id);
+                if (previous != null) {
+                    count(previous, -1);
+                }
+                snapshot.findById(id)
+                        .filter(product -> Boolean.TRUE.equals(product.getActive()))
+                        .ifPresent(this::index);
+            }
+        }
+        facets = publish();
+    }
+
+    private void index(Product product) {
+        FacetKey key = new FacetKey(
+                product.getCategory(),
+                product.getStock() != null && product.getStock() > 0,
+                priceBucket(product.getPrice())
+        );
+        keys.put(product.getId(), key);
+        count(key, 1);
+    }
+
+    private void count(FacetKey key, int delta) {
+        if (key.category() != null) {
+            categoryCounts.merge(key.category(), (long) delta, Long::sum);
+            categoryCounts.remove(key.category(), 0L);
+        }
+        if (key.available()) {
+            available += delta;
+        } else {
+            outOfStock += delta;
+        }
+        priceCounts[key.priceBucket()] += delta;
+    }
+
+    /**
+     * Índice del rango [bounds[i-1], bounds[i]) donde cae el precio
+     */
+    private int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        int bucket = 0;
+        while (bucket < priceBounds.size() && price.compareTo(priceBounds.get(bucket)) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private ProductFacets publish() {
+        Map<String, Long> availability = new LinkedHashMap<>();
+        availability.put("available", available);
+        availability.put("outOfStock", outOfStock);
+
+        List<ProductFacets.PriceRange> ranges = new ArrayList<>();
+        for (int i = 0; i < priceCounts.length; i++) {
+            ranges.add(new ProductFacets.PriceRange(
+                    i == 0 ? BigDecimal.ZERO : priceBounds.get(i - 1),
+                    i < priceBounds.size() ? priceBounds.get(i) : null,
+                    priceCounts[i]));
+        }
+
+        return new ProductFacets(
+                available + outOfStock,
+                Collections.unmodifiableMap(new LinkedHashMap<>(categoryCounts)),
+                Collections.unmodifiableMap(availability),
+                List.copyOf(ranges)
+        );
+    }
+
+    private record FacetKey(String category, boolean available, int priceBucket) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.capibara.services;
+
+import com.capibara.models.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice invertido en memoria sobre nombre, categoría y descripción de los
+ * productos activos
+ *  - término exacto (normalizado con TextNormalizer)
+ *  - parcial y con errores de tipeo mediante trigramas del vocabulario
+ * El estado es inmutable y se reemplaza completo; al cambiar productos solo
+ * se re-tokenizan esos productos y se copian las listas que tocan.
+ */
+@Component
+public class ProductSearchIndex implements CatalogListener {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float SUBSTRING_FACTOR = 0.8f;
+    private static final float FUZZY_FACTOR = 0.6f;
+    private static final double MIN_SIMILARITY = 0.4;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private volatile State state = State.EMPTY;
+
+    /**
+     * Productos ordenados por relevancia (primero los que coinciden con más términos)
+     */
+    public List<Product> search(String query, int limit) {
+        State current = state;
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.terms(query)));
+        if (queryTerms.isEmpty() || current.termsByProduct.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Hit> hits = new HashMap<>();
+        for (String queryTerm : queryTerms) {
+            // Mejor coincidencia de este término por producto
+            Map<Long, Float> best = new HashMap<>();
+            for (Map.Entry<String, Float> match : current.matchingTerms(queryTerm).entrySet()) {
+                Map<Long, Float> posting = current.postings.get(match.getKey());
+                float idf = current.idf(posting.size());
+                posting.forEach((id, weight) ->
+                        best.merge(id, weight * idf * match.getValue(), Math::max));
+            }
+            best.forEach((id, score) -> hits.computeIfAbsent(id, Hit::new).add(score));
+        }
+
+        return hits.values().stream()
+                .sorted(Comparator.comparingInt(Hit::matchedTerms).reversed()
+                        .thenComparing(Comparator.comparingDouble(Hit::score).reversed())
+                        .thenComparingLong(Hit::id))
+                .limit(limit)
+                .map(hit -> current.catalog.findById(hit.id()).orElse(null))
+                .filter(product -> product != null)
+                .toList();
+    }
+
+    @Override
+    public void onCatalogChanged(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        if (changedIds == null) {
+            Builder builder = new Builder(State.EMPTY);
+            snapshot.getActive().forEach(builder::add);
+            state = builder.build(snapshot);
+            return;
+        }
+
+        Builder builder = new Builder(state);
+        for (Long id : changedIds) {
+            builder.remove(id);
+            snapshot.findById(id)
+                    .filter(product -> Boolean.TRUE.equals(product.getActive()))
+                    .ifPresent(builder::add);
+        }
+        state = builder.build(snapshot);
+    }
+
+    /**
+     * Términos ponderados de un producto (suma de pesos por campo)
+     */
+    private static Map<String, Float> termsOf(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        TextNormalizer.terms(product.getName()).forEach(t -> terms.merge(t, NAME_WEIGHT, Float::sum));
+        TextNormalizer.terms(product.getCategory()).forEach(t -> terms.merge(t, CATEGORY_WEIGHT, Float::sum));
+        TextNormalizer.terms(product.getDescription()).forEach(t -> terms.merge(t, DESCRIPTION_WEIGHT, Float::sum));
+        return terms;
+    }
+
+    /**
+     * Estado inmutable del índice
+     * @param postings       término -> (id producto -> peso)
+     * @param termsByTrigram trigrama -> términos del vocabulario que lo contienen
+     * @param termsByProduct id producto -> sus términos (para re-indexar)
+     */
+    private record State(
+            CatalogSnapshot catalog,
+            Map<String, Map<Long, Float>> postings,
+            Map<String, Set<String>> termsByTrigram,
+            Map<Long, Map<String, Float>> termsByProduct
+    ) {
+        static final State EMPTY = new State(CatalogSnapshot.empty(), Map.of(), Map.of(), Map.of());
+
+        float idf(int documentFrequency) {
+            return (float) Math.log(1 + (double) termsByProduct.size() / documentFrequency);
+        }
+
+        /**
+         * Términos del vocabulario que coinciden con el de la consulta -> factor (0..1]
+         */
+        Map<String, Float> matchingTerms(String queryTerm) {
+            Map<String, Float> matches = new HashMap<>();
+            if (postings.containsKey(queryTerm)) {
+                matches.put(queryTerm, 1f);
+            }
+            if (queryTerm.length() < MIN_FUZZY_LENGTH) {
+                return matches;
+            }
+
+            Set<String> queryTrigrams = TextNormalizer.trigrams(queryTerm);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+
+            shared.forEach((term, count) -> {
+                if (term.equals(queryTerm)) {
+                    return;
+                }
+                int termTrigrams = term.length();
+                double similarity = (double) count / (queryTrigrams.size() + termTrigrams - count);
+                if (term.contains(queryTerm)) {
+                    matches.put(term, SUBSTRING_FACTOR);
+                } else if (similarity >= MIN_SIMILARITY) {
+                    matches.put(term, (float) (FUZZY_FACTOR * similarity));
+                }
+            });
+            return matches;
+        }
+    }
+
+    /**
+     * Construye un estado nuevo a partir de otro copiando solo lo que cambia
+     */
+    private static final class Builder {
+
+        private final Map<String, Map<Long, Float>> postings;
+        private final Map<String, Set<String>> termsByTrigram;
+        private final Map<Long, Map<String, Float>> termsByProduct;
+        private final Set<String> copiedPostings = new HashSet<>();
+        private final Set<String> copiedTrigrams = new HashSet<>();
+
+        Builder(State base) {
+            this.postings = new HashMap<>(base.postings);
+            this.termsByTrigram = new HashMap<>(base.termsByTrigram);
+            this.termsByProduct = new HashMap<>(base.termsByProduct);
+        }
+
+        void add(Product product) {
+            Map<String, Float> terms = termsOf(product);
+            termsByProduct.put(product.getId(), Map.copyOf(terms));
+            terms.forEach((term, weight) -> {
+                if (!postings.containsKey(term)) {
+                    for (String trigram : TextNormalizer.trigrams(term)) {
+                        trigramTerms(trigram).add(term);
+                    }
+                }
+                posting(term).put(product.getId(), weight);
+            });
+        }
+
+        void remove(Long id) {
+            Map<String, Float> terms = termsByProduct.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Long, Float> posting = posting(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    copiedPostings.remove(term);
+                    for (String trigram : TextNormalizer.trigrams(term)) {
+                        Set<String> trigramTerms = trigramTerms(trigram);
+                        trigramTerms.remove(term);
+                        if (trigramTerms.isEmpty()) {
+                            termsByTrigram.remove(trigram);
+                            copiedTrigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+
+        State build(CatalogSnapshot catalog) {
+            return new State(catalog, postings, termsByTrigram, termsByProduct);
+        }
+
+        /**
+         * Copia propia (modificable) del posting; vacía si el término no existe
+         * Una entrada eliminada en este builder se vuelve a crear en vez de devolver null
+         */
+        private Map<Long, Float> posting(String term) {
+            if (copiedPostings.add(term)) {
+                postings.put(term, new HashMap<>(postings.getOrDefault(term, Map.of())));
+            }
+            return postings.computeIfAbsent(term, key -> new HashMap<>());
+        }
+
+        private Set<String> trigramTerms(String trigram) {
+            if (copiedTrigrams.add(trigram)) {
+                termsByTrigram.put(trigram, new HashSet<>(termsByTrigram.getOrDefault(trigram, Set.of())));
+            }
+            return termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>());
+        }
+    }
+
+    private static final class Hit {
+
+        private final long id;
+        private int matchedTerms;
+        private double score;
+
+        Hit(Long id) {
+            this.id = id;
+        }
+
+        void add(float termScore) {
+            matchedTerms++;
+            score += termScore;
+        }
+
+        long id() {
+            return id;
+        }
+
+        int matchedTerms() {
+            return matchedTerms;
+        }
+
+        double score() {
+            return score;
+        }
+    }
+}
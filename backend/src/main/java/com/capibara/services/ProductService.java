@@ -1,23 +1,32 @@
 package com.capibara.services;
 
+import com.capibara.dto.ProductQuery;
 import com.capibara.models.Product;
+import com.capibara.models.ProductTombstone;
 import com.capibara.repositories.ProductRepository;
+import com.capibara.repositories.ProductSpecifications;
+import com.capibara.repositories.ProductTombstoneRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Servicio para gestión de productos
  * IE3.1.1 - Lógica de negocio
  * IE3.2.1 - Operaciones CRUD
+ * Cada escritura se registra en CatalogService (se aplica al hacer commit)
  */
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final CatalogService catalogService;
 
     @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
@@ -45,14 +54,20 @@ public class ProductService {
         return productRepository.findByCategoryAndActive(category, true);
     }
 
+    /**
+     * Filtros y orden combinables resueltos en una sola consulta paginada
+     * (lectura de solo lectura: sin snapshots de dirty checking)
+     */
     @Transactional(readOnly = true)
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    public Page<Product> queryProducts(ProductQuery query) {
+        return productRepository.findAll(ProductSpecifications.matching(query), query.toPageRequest());
     }
 
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogService.productSaved(saved);
+        return saved;
     }
 
     @Transactional
@@ -67,26 +82,33 @@ public class ProductService {
         product.setImageUrl(productDetails.getImageUrl());
         product.setActive(productDetails.getActive());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogService.productSaved(saved);
+        return saved;
     }
 
+    /**
+     * Elimina el producto y deja una lápida para /api/products/changes
+     */
     @Transactional
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
         productRepository.delete(product);
+        productTombstoneRepository.save(new ProductTombstone(null, id, LocalDateTime.now()));
+        catalogService.productDeleted(id);
     }
 
     @Transactional
     public void deactivateProduct(Long id) {
         Product product = getProductById(id);
         product.setActive(false);
-        productRepository.save(product);
+        catalogService.productSaved(productRepository.save(product));
     }
 
     @Transactional
     public void updateStock(Long id, Integer quantity) {
         Product product = getProductById(id);
         product.setStock(quantity);
-        productRepository.save(product);
+        catalogService.productSaved(productRepository.save(product));
     }
 }
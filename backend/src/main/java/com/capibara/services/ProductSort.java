@@ -0,0 +1,78 @@
+package com.capibara.services;
+
+import com.capibara.models.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Órdenes estables para paginar productos y sus cursores (keyset)
+ * El cursor es opaco para el cliente: codifica la clave del último elemento
+ * entregado y solo es válido para el mismo orden.
+ */
+public enum ProductSort {
+
+    ID("id", Comparator.comparing(Product::getId)),
+    CREATED_AT("createdAt", Comparator
+            .comparing(Product::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Product::getId));
+
+    private final String key;
+    private final Comparator<Product> comparator;
+
+    ProductSort(String key, Comparator<Product> comparator) {
+        this.key = key;
+        this.comparator = comparator;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Comparator<Product> getComparator() {
+        return comparator;
+    }
+
+    public static ProductSort fromKey(String key) {
+        for (ProductSort sort : values()) {
+            if (sort.key.equalsIgnoreCase(key)) {
+                return sort;
+            }
+        }
+        throw new RuntimeException("Orden no soportado: " + key);
+    }
+
+    /**
+     * Cursor que apunta justo después del producto dado
+     */
+    public String encodeCursor(Product last) {
+        String createdAt = this == CREATED_AT && last.getCreatedAt() != null ? last.getCreatedAt().toString() : "";
+        String raw = key + "|" + createdAt + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Producto "sonda" con la clave del cursor, para buscarlo con el comparador
+     */
+    public Product decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(key)) {
+                throw new IllegalArgumentException(raw);
+            }
+
+            Product probe = new Product();
+            probe.setId(Long.parseLong(parts[2]));
+            if (this == CREATED_AT && !parts[1].isEmpty()) {
+                probe.setCreatedAt(LocalDateTime.parse(parts[1]));
+            }
+            return probe;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Cursor inválido para el orden " + key);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.capibara.services;
+
+import com.capibara.dto.Suggestion;
+import com.capibara.models.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Autocompletado de productos y categorías con un trie de prefijos inmutable
+ * Las claves son los nombres normalizados a partir de cada palabra
+ * ("teclado rgb mecanico", "rgb mecanico", "mecanico"); cada nodo guarda ya
+ * calculadas sus mejores sugerencias, así que una consulta es O(largo del prefijo).
+ * Productos ordenados por stock; categorías por el stock total de sus productos.
+ * Al cambiar un producto solo se copian los caminos de sus claves.
+ */
+@Component
+public class ProductSuggestionIndex implements CatalogListener {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 40;
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparing(entry -> entry.suggestion().getText());
+
+    private volatile State state = State.EMPTY;
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = state.root().find(key);
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.stream()
+                .limit(Math.min(limit, MAX_SUGGESTIONS))
+                .map(Entry::suggestion)
+                .toList();
+    }
+
+    @Override
+    public void onCatalogChanged(CatalogSnapshot snapshot, Set<Long> changedIds) {
+        if (changedIds == null) {
+            state = State.build(snapshot);
+            return;
+        }
+
+        State current = state;
+        Node root = current.root();
+        Map<String, Registration> registrations = new HashMap<>(current.registrations());
+        Set<String> categories = new HashSet<>();
+
+        for (Long id : changedIds) {
+            Registration previous = registrations.remove(productKey(id));
+            if (previous != null) {
+                root = previous.removeFrom(root);
+                categories.add(previous.category());
+            }
+            Product product = snapshot.findById(id).orElse(null);
+            if (product != null && Boolean.TRUE.equals(product.getActive())) {
+                Registration registration = Registration.of(product);
+                registrations.put(registration.entry().id(), registration);
+                root = registration.addTo(root);
+                categories.add(product.getCategory());
+            }
+        }
+
+        // El puntaje de la categoría depende del stock de todos sus productos
+        for (String category : categories) {
+            if (category == null) {
+                continue;
+            }
+            Registration previous = registrations.remove(categoryKey(category));
+            if (previous != null) {
+                root = previous.removeFrom(root);
+            }
+            List<Product> products = snapshot.getActiveByCategory(category);
+            if (!products.isEmpty()) {
+                Registration registration = Registration.of(category, products);
+                registrations.put(registration.entry().id(), registration);
+                root = registration.addTo(root);
+            }
+        }
+
+        state = new State(root, registrations);
+    }
+
+    /**
+     * Texto normalizado: palabras sin tildes separadas por un espacio
+     */
+    private static String normalize(String text) {
+        String normalized = String.join(" ", TextNormalizer.words(text));
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    /**
+     * Claves para un texto: desde cada palabra que no sea vacía hasta el final
+     */
+    private static List<String> keysFor(String text) {
+        List<String> words = TextNormalizer.words(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            if (!TextNormalizer.isStopword(words.get(i))) {
+                keys.add(normalize(String.join(" ", words.subList(i, words.size()))));
+            }
+        }
+        return List.copyOf(keys);
+    }
+
+    private static String productKey(Long id) {
+        return "p:" + id;
+    }
+
+    private static String categoryKey(String category) {
+        return "c:" + category;
+    }
+
+    private record Entry(String id, Suggestion suggestion, long score) {
+    }
+
+    private record KeyedEntry(String key, Entry entry) {
+    }
+
+    /**
+     * Una sugerencia y las claves con que se insertó (para poder quitarla)
+     */
+    private record Registration(Entry entry, List<String> keys, String category) {
+
+        static Registration of(Product product) {
+            long stock = product.getStock() != null ? product.getStock() : 0;
+            Suggestion suggestion = new Suggestion(product.getName(), Suggestion.Type.PRODUCT, product.getId());
+            return new Registration(new Entry(productKey(product.getId()), suggestion, stock),
+                    keysFor(product.getName()), product.getCategory());
+        }
+
+        static Registration of(String category, List<Product> products) {
+            long stock = products.stream().mapToLong(p -> p.getStock() != null ? p.getStock() : 0).sum();
+            Suggestion suggestion = new Suggestion(category, Suggestion.Type.CATEGORY, null);
+            return new Registration(new Entry(categoryKey(category), suggestion, stock), keysFor(category), category);
+        }
+
+        Node addTo(Node root) {
+            for (String key : keys) {
+                root = root.insert(key, 0, entry);
+            }
+            return root;
+        }
+
+        Node removeFrom(Node root) {
+            for (String key : keys) {
+                Node updated = root.remove(key, 0, entry.id());
+                root = updated != null ? updated : Node.EMPTY;
+            }
+            return root;
+        }
+    }
+
+    private record State(Node root, Map<String, Registration> registrations) {
+
+        static final State EMPTY = new State(Node.EMPTY, Map.of());
+
+        static State build(CatalogSnapshot snapshot) {
+            Map<String, Registration> registrations = new LinkedHashMap<>();
+            for (Product product : snapshot.getActive()) {
+                Registration registration = Registration.of(product);
+                registrations.put(registration.entry().id(), registration);
+            }
+            for (String category : snapshot.getCategories()) {
+                Registration registration = Registration.of(category, snapshot.getActiveByCategory(category));
+                registrations.put(registration.entry().id(), registration);
+            }
+
+            List<KeyedEntry> keyed = new ArrayList<>();
+            for (Registration registration : registrations.values()) {
+                for (String key : registration.keys()) {
+                    keyed.add(new KeyedEntry(key, registration.entry()));
+                }
+            }
+            keyed.sort(Comparator.comparing(KeyedEntry::key));
+
+            return new State(Node.build(keyed, 0, keyed.size(), 0), registrations);
+        }
+    }
+
+    /**
+     * Nodo inmutable del trie: hijos ordenados por carácter (búsqueda binaria),
+     * sugerencias que terminan aquí y mejores sugerencias del subárbol
+     */
+    private static final class Node {
+
+        static final Node EMPTY = new Node(new char[0], new Node[0], List.of());
+
+        final char[] labels;
+        final Node[] children;
+        final List<Entry> terminals;
+        final List<Entry> top;
+
+        Node(char[] labels, Node[] children, List<Entry> terminals) {
+            this.labels = labels;
+            this.children = children;
+            this.terminals = terminals;
+            this.top = computeTop(terminals, children);
+        }
+
+        /**
+         * Construcción masiva desde claves ordenadas: [from, to) comparten los primeros depth caracteres
+         */
+        static Node build(List<KeyedEntry> sorted, int from, int to, int depth) {
+            List<Entry> terminals = new ArrayList<>();
+            int i = from;
+            while (i < to && sorted.get(i).key().length() == depth) {
+                terminals.add(sorted.get(i).entry());
+                i++;
+            }
+
+            StringBuilder labels = new StringBuilder();
+            List<Node> children = new ArrayList<>();
+            while (i < to) {
+                char label = sorted.get(i).key().charAt(depth);
+                int end = i;
+                while (end < to && sorted.get(end).key().charAt(depth) == label) {
+                    end++;
+                }
+                labels.append(label);
+                children.add(build(sorted, i, end, depth + 1));
+                i = end;
+            }
+
+            return new Node(labels.toString().toCharArray(), children.toArray(new Node[0]), List.copyOf(terminals));
+        }
+
+        Node find(String key) {
+            Node node = this;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.labels, key.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return node;
+        }
+
+        /**
+         * Copia del camino hasta la clave con la entrada agregada
+         */
+        Node insert(String key, int depth, Entry entry) {
+            if (depth == key.length()) {
+                List<Entry> updated = new ArrayList<>(terminals);
+                updated.removeIf(existing -> existing.id().equals(entry.id()));
+                updated.add(entry);
+                return new Node(labels, children, List.copyOf(updated));
+            }
+
+            char label = key.charAt(depth);
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                Node[] updated = children.clone();
+                updated[index] = children[index].insert(key, depth + 1, entry);
+                return new Node(labels, updated, terminals);
+            }
+
+            int position = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newLabels[position] = label;
+            newChildren[position] = EMPTY.insert(key, depth + 1, entry);
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            return new Node(newLabels, newChildren, terminals);
+        }
+
+        /**
+         * Copia del camino sin la entrada; null si el nodo queda vacío
+         */
+        Node remove(String key, int depth, String entryId) {
+            if (depth == key.length()) {
+                List<Entry> updated = terminals.stream()
+                        .filter(existing -> !existing.id().equals(entryId))
+                        .toList();
+                return updated.isEmpty() && children.length == 0 ? null : new Node(labels, children, updated);
+            }
+
+            int index = Arrays.binarySearch(labels, key.charAt(depth));
+            if (index < 0) {
+                return this;
+            }
+
+            Node child = children[index].remove(key, depth + 1, entryId);
+            if (child != null) {
+                Node[] updated = children.clone();
+                updated[index] = child;
+                return new Node(labels, updated, terminals);
+            }
+
+            if (children.length == 1 && terminals.isEmpty()) {
+                return null;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new Node(newLabels, newChildren, terminals);
+        }
+
+        /**
+         * Mejores entradas entre las propias y las de los hijos (sin repetir sugerencias)
+         */
+        private static List<Entry> computeTop(List<Entry> terminals, Node[] children) {
+            Map<String, Entry> candidates = new HashMap<>();
+            for (Entry entry : terminals) {
+                candidates.putIfAbsent(entry.id(), entry);
+            }
+            for (Node child : children) {
+                for (Entry entry : child.top) {
+                    candidates.putIfAbsent(entry.id(), entry);
+                }
+            }
+            return candidates.values().stream()
+                    .sorted(RANKING)
+                    .limit(MAX_SUGGESTIONS)
+                    .toList();
+        }
+    }
+}
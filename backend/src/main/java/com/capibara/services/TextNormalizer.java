@@ -0,0 +1,105 @@
+package com.capibara.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto en español para búsqueda
+ *  - minúsculas y sin tildes ("Audífonos" -> "audifonos")
+ *  - tokens alfanuméricos sin palabras vacías ("de", "para", ...)
+ *  - stemming liviano de plurales ("monitores" -> "monitor")
+ *  - trigramas para coincidencias parciales y errores de tipeo
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los",
+            "mas", "muy", "o", "para", "por", "que", "se", "sin", "su", "sus",
+            "un", "una", "unas", "unos", "y"
+    );
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Minúsculas y sin marcas diacríticas
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Términos de búsqueda (normalizados y con stemming), en orden de aparición
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : words(text)) {
+            if (!isStopword(word)) {
+                terms.add(stem(word));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Palabras normalizadas (sin tildes, en minúsculas), sin filtrar ni stemming
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty()) {
+                words.add(token);
+            }
+        }
+        return words;
+    }
+
+    public static boolean isStopword(String word) {
+        return STOPWORDS.contains(word);
+    }
+
+    /**
+     * Trigramas del término con bordes marcados (" te", "tec", ..., "do ")
+     */
+    public static Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Stemming de plurales: "luces" -> "luz", "monitores" -> "monitor", "teclados" -> "teclado"
+     */
+    static String stem(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ces")) {
+            return token.substring(0, length - 3) + "z";
+        }
+        if (length > 4 && token.endsWith("es") && !isVowel(token.charAt(length - 3))) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 3 && token.endsWith("s") && isVowel(token.charAt(length - 2))) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
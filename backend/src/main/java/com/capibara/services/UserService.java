@@ -1,16 +1,21 @@
 package com.capibara.services;
 
+import com.capibara.dto.FieldSet;
 import com.capibara.models.Role;
 import com.capibara.models.User;
+import com.capibara.repositories.FieldProjectionRepository;
 import com.capibara.repositories.UserRepository;
+import com.capibara.security.TokenRevocationService;
+import com.capibara.security.UserAccountCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Servicio para gestión de usuarios
@@ -23,6 +28,9 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserAccountCache userAccountCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final FieldProjectionRepository fieldProjectionRepository;
 
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
@@ -35,12 +43,37 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
     }
 
+    /**
+     * Variantes con ?fields=: solo se leen las columnas pedidas
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllUsers(FieldSet.Selection<User> fields) {
+        return fieldProjectionRepository.findFields(User.class, fields, null, Sort.by("id"));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserFields(Long id, FieldSet.Selection<User> fields) {
+        Specification<User> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return fieldProjectionRepository.findFields(User.class, fields, byId, Sort.unsorted()).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+    }
+
     @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con email: " + email));
     }
 
+    /**
+     * Perfil por email servido desde la caché de cuentas (sin contraseña)
+     */
+    public User getProfileByEmail(String email) {
+        return userAccountCache.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con email: " + email))
+                .toUserWithoutPassword();
+    }
+
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
@@ -57,9 +90,7 @@ public class UserService {
 
         // Asignar rol USER por defecto si no tiene roles
         if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            Set<Role> roles = new HashSet<>();
-            roles.add(Role.ROLE_USER);
-            user.setRoles(roles);
+            user.addRole(Role.ROLE_USER);
         }
 
         return userRepository.save(user);
@@ -78,6 +109,7 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
 
+        userAccountCache.invalidate(user.getEmail());
         return userRepository.save(user);
     }
 
@@ -85,6 +117,8 @@ public class UserService {
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        userAccountCache.invalidate(user.getEmail());
+        tokenRevocationService.revokeUser(id);
     }
 
     @Transactional
@@ -92,6 +126,8 @@ public class UserService {
         User user = getUserById(id);
         user.setActive(false);
         userRepository.save(user);
+        userAccountCache.invalidate(user.getEmail());
+        tokenRevocationService.revokeUser(id);
     }
 
     @Transactional
@@ -99,6 +135,7 @@ public class UserService {
         User user = getUserById(userId);
         user.addRole(role);
         userRepository.save(user);
+        userAccountCache.invalidate(user.getEmail());
     }
 
     @Transactional
@@ -106,5 +143,8 @@ public class UserService {
         User user = getUserById(userId);
         user.removeRole(role);
         userRepository.save(user);
+        userAccountCache.invalidate(user.getEmail());
+        // Los roles viajan en el token: los tokens ya emitidos dejan de valer
+        tokenRevocationService.revokeTokensIssuedBefore(userId);
     }
 }
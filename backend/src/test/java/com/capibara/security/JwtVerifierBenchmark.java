@@ -0,0 +1,93 @@
+package com.capibara.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH: verificaciones de JWT por segundo y por núcleo
+ * Compara el camino anterior del filtro (clave + parser + firma x3 por request)
+ * con JwtVerifier (una sola verificación)
+ *
+ * Ejecutar con:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.capibara.security.JwtVerifierBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class JwtVerifierBenchmark {
+
+    private static final String SECRET =
+            "CapibaraSecretKeyForJWTTokenGenerationDSY1104EvaluacionParcial3TechStore2024";
+
+    private JwtVerifier jwtVerifier;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtVerifier = new JwtVerifier(SECRET);
+
+        Date now = new Date();
+        token = Jwts.builder()
+                .setClaims(Map.of("roles", List.of("ROLE_USER", "ROLE_ADMIN")))
+                .setSubject("admin@capibara.cl")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(24)))
+                .signWith(jwtVerifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public VerifiedToken singlePass() {
+        return jwtVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Object legacyTriplePass() {
+        // Réplica de validateToken + extractUsername + extractRoles del filtro anterior
+        Claims validated = parseWithFreshKey(token);
+        String username = parseWithFreshKey(token).getSubject();
+        Object roles = parseWithFreshKey(token).get("roles");
+        return validated != null ? username + roles : null;
+    }
+
+    private static Claims parseWithFreshKey(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package com.capibara.services;
+
+import com.capibara.models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Actualizaciones incrementales del índice de búsqueda
+ */
+class ProductSearchIndexTest {
+
+    @Test
+    void updatingTheSameProductTwiceKeepsTheIndexCurrent() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, List.of(
+                product(1L, "Teclado Mecánico", 10),
+                product(2L, "Mouse Gamer", 5)));
+        index.onCatalogChanged(snapshot, null);
+
+        // Reponer stock: mismos términos, el producto sale y vuelve a entrar en los mismos postings
+        snapshot = snapshot.apply(2, Map.of(1L, product(1L, "Teclado Mecánico", 20)));
+        index.onCatalogChanged(snapshot, Set.of(1L));
+        assertEquals(List.of(1L), ids(index.search("teclado", 10)));
+
+        // Renombrar: los términos anteriores desaparecen del índice
+        snapshot = snapshot.apply(3, Map.of(1L, product(1L, "Monitor Curvo", 20)));
+        index.onCatalogChanged(snapshot, Set.of(1L));
+        assertEquals(List.of(1L), ids(index.search("monitor", 10)));
+        assertTrue(index.search("teclado", 10).isEmpty());
+        assertEquals(List.of(2L), ids(index.search("mouse", 10)));
+    }
+
+    private static Product product(Long id, String name, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(1000));
+        product.setStock(stock);
+        product.setCategory("Periféricos");
+        product.setActive(true);
+        return product;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -2,7 +2,9 @@ import React from 'react';
 import { ProductCardProps } from '../../types';
 
 const ProductCard: React.FC<ProductCardProps> = ({ product, onAddToCart }) => {
-  const { id, name, price, image, stock, description } = product;
+  const { id, name, price, image, stock, description, shortDescription } = product;
+  // Los listados del backend traen shortDescription (ya recortada), no description
+  const snippet = shortDescription ?? description?.substring(0, 60);
   const isOutOfStock = stock === 0;
 
   const formatPrice = (price: number): string => {
@@ -29,9 +31,9 @@ const ProductCard: React.FC<ProductCardProps> = ({ product, onAddToCart }) => {
           <h5 className="card-title text-truncate" title={name}>
             {name}
           </h5>
-          {description && (
+          {snippet && (
             <p className="card-text text-muted small">
-              {description.substring(0, 60)}...
+              {snippet}...
             </p>
           )}
           <div className="mt-auto">
@@ -92,8 +92,17 @@ const Admin: React.FC = () => {
 
   /**
    * Preparar formulario para editar un producto
+   * El listado no trae la descripción: se carga el producto completo
    */
-  const handleEdit = (product: Product) => {
+  const handleEdit = async (product: Product) => {
+    let description = product.description;
+    try {
+      const fullProduct = await productService.getProductById(product.id);
+      description = fullProduct.description;
+    } catch (error) {
+      console.error('Error cargando detalle del producto:', error);
+    }
+
     setEditingProduct(product);
     setFormData({
       name: product.name,
@@ -101,7 +110,7 @@ const Admin: React.FC = () => {
       image: product.image,
       stock: product.stock,
       category: product.category,
-      description: product.description
+      description: description ?? ''
     });
     setShowForm(true);
   };
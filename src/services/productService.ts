@@ -1,19 +1,28 @@
 import api from './api';
 
+// Los listados entregan un resumen sin fechas y con shortDescription
+// (descripción recortada) en vez de description;
+// solo /api/products/:id trae el producto completo
 interface Product {
   id: number;
   name: string;
-  description: string;
+  description?: string;
+  shortDescription?: string;
   price: number;
   stock: number;
   category: string;
   imageUrl?: string;
   active: boolean;
-  createdAt: string;
-  updatedAt: string;
+  createdAt?: string;
+  updatedAt?: string;
   available: boolean;
 }
 
+interface ProductBatch {
+  items: Product[];
+  missingIds: number[];
+}
+
 interface ApiResponse<T> {
   success: boolean;
   message: string;
@@ -62,6 +71,28 @@ const productService = {
     }
   },
 
+  /**
+   * Obtener varios productos por ID en una sola solicitud
+   * (p. ej. refrescar precio y stock de todas las líneas del carrito)
+   * Devuelve los productos en el orden pedido y los ids que ya no existen
+   */
+  getProductsByIds: async (ids: number[]): Promise<ProductBatch> => {
+    console.log(' Obteniendo productos:', ids.length);
+    
+    try {
+      //  POST /api/products/batch: la lista va en el cuerpo (sin límite de largo de URL)
+      const response = await api.post<ApiResponse<ProductBatch>>('/api/products/batch', { ids });
+      
+      console.log(' Productos obtenidos:', response.data.data.items.length);
+      
+      return response.data.data;
+      
+    } catch (error: any) {
+      console.error(' Error obteniendo productos:', error);
+      throw error;
+    }
+  },
+
   /**
    * Crear producto (requiere ADMIN)
    */
@@ -6,6 +6,7 @@ export interface Product {
   stock: number;
   category: string;
   description?: string;
+  shortDescription?: string;
 }
 
 export interface CartItem extends Product {